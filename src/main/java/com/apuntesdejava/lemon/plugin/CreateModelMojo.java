@@ -16,11 +16,14 @@
 package com.apuntesdejava.lemon.plugin;
 
 import com.apuntesdejava.lemon.jakarta.model.types.DatasourceDefinitionStyleType;
+import com.apuntesdejava.lemon.jakarta.model.types.JpaProviderType;
 import com.apuntesdejava.lemon.plugin.util.*;
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
 import jakarta.json.JsonValue;
 import jakarta.persistence.GenerationType;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.ObjectUtils;
@@ -29,22 +32,32 @@ import org.apache.maven.model.Model;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import javax.xml.xpath.XPathExpressionException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -56,9 +69,15 @@ import static com.apuntesdejava.lemon.plugin.util.JsonValuesUtil.*;
  *
  * @author Diego Silva diego.silva at apuntesdejava.com
  */
-@Mojo(name = "create-model")
+@Mojo(
+    name = "create-model",
+    defaultPhase = LifecyclePhase.GENERATE_SOURCES
+)
 public class CreateModelMojo extends AbstractMojo {
 
+    private static final Set<String> VERSION_TYPES = Set.of("int", "Integer", "short", "Short", "long", "Long",
+        "java.sql.Timestamp", "java.time.Instant", "java.time.LocalDateTime");
+
     @Parameter(
         property = "model",
         defaultValue = "model.json"
@@ -70,7 +89,45 @@ public class CreateModelMojo extends AbstractMojo {
         readonly = true
     )
     private MavenProject mavenProject;
+    @Parameter(
+        defaultValue = "${plugin}",
+        readonly = true
+    )
+    private PluginDescriptor pluginDescriptor;
+    /**
+     * If {@code true}, the classes are generated in {@link #outputDirectory}, registered as compile source root, instead
+     * of {@code src/main/java}. The datasource, dependencies and persistence.xml are not modified in this mode.
+     */
+    @Parameter(
+        property = "lemon.generateSources",
+        defaultValue = "false"
+    )
+    private boolean generateSources;
+    @Parameter(
+        property = "lemon.outputDirectory",
+        defaultValue = "${project.build.directory}/generated-sources/lemon"
+    )
+    private File outputDirectory;
+    /**
+     * If {@code true}, the files are written in UTF-8 with {@code \n} line separators and sorted imports, so identical
+     * inputs give identical bytes on any platform.
+     */
+    @Parameter(
+        property = "lemon.reproducible",
+        defaultValue = "false"
+    )
+    private boolean reproducible;
+    /**
+     * If {@code true}, the entities of each context ({@code context} key of the entity) are generated as a separate
+     * Maven module in the {@code contexts} directory, with an aggregator pom.xml.
+     */
+    @Parameter(
+        property = "lemon.splitContexts",
+        defaultValue = "false"
+    )
+    private boolean splitContexts;
     private DatasourceDefinitionStyleType style;
+    private final Map<String, String> entityPackages = new HashMap<>();
 
     private static void removeLastComma(List<String> list) {
         list.set(list.size() - 1, StringUtils.removeEnd(list.get(list.size() - 1), ","));
@@ -84,30 +141,80 @@ public class CreateModelMojo extends AbstractMojo {
      */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        Path modelPath = mavenProject.getBasedir().toPath().resolve(modelProjectFile);
+        String groupId = mavenProject.getGroupId();
+        String packageName = StringUtils.replaceChars(groupId + '.' + mavenProject.getArtifactId(), '-', '.');
+        Path stampFile = Path.of(mavenProject.getBuild().getDirectory(), "lemon", "create-model.stamp");
+        String stampKey = pluginDescriptor.getVersion() + ':' + packageName + ':' + reproducible + ':'
+            + outputDirectory.getAbsolutePath();
+        List<Path> inputs = new ArrayList<>();
+        if (generateSources) {
+            if (splitContexts) {
+                throw new MojoExecutionException("splitContexts cannot be used with generateSources: the context "
+                    + "modules are written in the project, not in the output directory");
+            }
+            mavenProject.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+            inputs.addAll(getModelInputs(modelPath));
+            Path modelOutputPath = outputDirectory.toPath().resolve(packageName.replace('.', File.separatorChar))
+                .resolve("model");
+            if (!inputs.isEmpty() && GeneratedSourcesUtil.isUpToDate(getLog(), stampFile, stampKey, inputs,
+                List.of(modelOutputPath))) {
+                getLog().info("Generated model sources are up to date");
+                return;
+            }
+        }
 
-        ProjectModelUtil.getProjectModel(getLog(), modelProjectFile).ifPresent(pm -> {
+        ProjectModelUtil.getProjectModel(getLog(), modelPath.toString()).ifPresent(pm -> {
 
-            String groupId = mavenProject.getGroupId();
-            String packageName = StringUtils.replaceChars(groupId + '.' + mavenProject.getArtifactId(), '-', '.');
             this.projectModel = Json.createObjectBuilder(pm)
                 .add(PACKAGE_NAME, Json.createValue(packageName))
                 .add(PROJECT_NAME, Json.createValue(mavenProject.getId()))
                 .build();
             getLog().debug(String.format("groupId:%s  packageName: %s", groupId, packageName));
             buildModel(packageName);
-            addDatasource();
-            addDependencies();
-            addPersistenceXML();
+            if (generateSources) {
+                GeneratedSourcesUtil.saveStamp(getLog(), stampFile, stampKey, inputs);
+                checkPersistenceXML();
+            } else {
+                addDatasource();
+                addDependencies();
+                addEnhancement();
+                addPersistenceXML();
+            }
         });
     }
 
+    private List<Path> getModelInputs(Path modelPath) {
+        List<Path> inputs = new ArrayList<>();
+        if (Files.isRegularFile(modelPath)) {
+            inputs.add(modelPath);
+            try (InputStream in = Files.newInputStream(modelPath); var reader = Json.createReader(in)) {
+                inputs.addAll(ModelFragmentUtil.listFragments(modelPath.toAbsolutePath().getParent(),
+                    reader.readObject().get(ENTITIES)));
+            } catch (IOException ex) {
+                getLog().warn(ex.getMessage());
+            }
+        }
+        return inputs;
+    }
+
     private void buildModel(String packageName) {
         try {
             getLog().debug("Building model");
             Path baseDirPath = mavenProject.getBasedir().toPath();
             getLog().debug("baseDir:" + baseDirPath);
+            projectModel.getJsonArray(ENTITIES).stream().map(JsonValue::asJsonObject).forEach(
+                entity -> entityPackages.put(entity.getString(NAME), splitContexts
+                    ? packageName + '.' + ContextModulesUtil.getContextName(entity)
+                    : packageName));
+            if (splitContexts) {
+                buildContextModules(packageName);
+                return;
+            }
 
-            Path javaMainSrc = baseDirPath.resolve(SRC_PATH).resolve(MAIN_PATH).resolve(JAVA_PATH);
+            Path javaMainSrc = generateSources
+                ? outputDirectory.toPath()
+                : baseDirPath.resolve(SRC_PATH).resolve(MAIN_PATH).resolve(JAVA_PATH);
             Path resourcesMainSrc = baseDirPath.resolve(SRC_PATH).resolve(MAIN_PATH).resolve(RESOURCES);
             Path javaTestSrc = baseDirPath.resolve(SRC_PATH).resolve("test").resolve(JAVA_PATH);
             Path packageBasePath = javaMainSrc;
@@ -118,38 +225,181 @@ public class CreateModelMojo extends AbstractMojo {
             Files.createDirectories(javaMainSrc);
             Files.createDirectories(resourcesMainSrc);
             Files.createDirectories(javaTestSrc);
+            if (generateSources) {
+                //las clases de entidades eliminadas del modelo no deben quedar en las fuentes generadas
+                for (String generatedPackage : List.of("model", "repositories", "services", DTO)) {
+                    FileUtils.deleteDirectory(packageBasePath.resolve(generatedPackage).toFile());
+                }
+            }
             Files.createDirectories(packageBasePath);
-            createAbstractsClasses(packageBasePath);
+            createAbstractsClasses(packageBasePath, packageBasePath);
+            createEntitiesClasses(packageBasePath, projectModel.getJsonArray(ENTITIES)
+                .stream()
+                .map(JsonValue::asJsonObject)
+                .collect(Collectors.toList()));
 
-            final Path packageBaseModel = packageBasePath.resolve("model");
-            final Path packageBaseRepository = packageBasePath.resolve("repositories");
-            final Path packageBaseService = packageBasePath.resolve("services");
-            Files.createDirectories(packageBaseModel);
+        } catch (IOException ex) {
+            getLog().error(ex.getMessage(), ex);
+        }
 
-            projectModel.getJsonArray(ENTITIES).stream().map(JsonValue::asJsonObject).forEach(entity -> {
-                createEntity(packageBaseModel.resolve(entity.getString(NAME) + ".java"), entity);
-                createRepository(packageBaseRepository, entity);
-                createService(packageBaseService, entity);
-            });
+    }
 
-        } catch (IOException ex) {
+    private void createEntitiesClasses(Path packageBasePath, List<JsonObject> entities) throws IOException {
+        final Path packageBaseModel = packageBasePath.resolve("model");
+        final Path packageBaseRepository = packageBasePath.resolve("repositories");
+        final Path packageBaseService = packageBasePath.resolve("services");
+        Files.createDirectories(packageBaseModel);
+        Files.createDirectories(packageBaseRepository);
+        Files.createDirectories(packageBaseService);
+
+        entities.forEach(entity -> {
+            createEntity(packageBaseModel.resolve(entity.getString(NAME) + ".java"), entity);
+            createDtos(packageBasePath.resolve(DTO), entity);
+            createRepository(packageBaseRepository, entity);
+            createService(packageBaseService, entity);
+        });
+    }
+
+    private void createDtos(Path packageBaseDto, JsonObject entity) {
+        if (!isFieldsNotEmpty(entity, FINDERS)) {
+            return;
+        }
+        var entityName = entity.getString(NAME);
+        var fields = entity.getJsonObject(FIELDS);
+        entity.getJsonObject(FINDERS).forEach((name, value) -> {
+            var finder = value.asJsonObject();
+            if (!ProjectionUtil.isProjection(finder) || isModifyingFinder(finder)) {
+                return;
+            }
+            var dtoName = ProjectionUtil.getDtoName(entityName, name, finder);
+            Map<String, String> dtoFields = new LinkedHashMap<>();
+            for (String fieldName : ProjectionUtil.getFields(finder)) {
+                if (!fields.containsKey(fieldName)) {
+                    getLog().error("Field " + fieldName + " of projection " + dtoName + " not found in " + entityName);
+                    return;
+                }
+                dtoFields.put(fieldName, resolveType(fields.getJsonObject(fieldName).getString(TYPE), null));
+            }
+            try {
+                Files.createDirectories(packageBaseDto);
+                ProjectionUtil.createDto(packageBaseDto.resolve(dtoName + ".java"),
+                    entityPackages.get(entityName) + "." + DTO, dtoName, dtoFields,
+                    ProjectModelUtil.getJavaRelease(mavenProject), reproducible);
+            } catch (IOException ex) {
+                getLog().error(ex.getMessage(), ex);
+            }
+        });
+    }
+
+    private void buildContextModules(String packageName) throws IOException {
+        var contexts = ContextModulesUtil.groupByContext(projectModel.getJsonArray(ENTITIES));
+        var contextDependencies = ContextModulesUtil.getContextDependencies(contexts);
+        var cycle = ContextModulesUtil.findCycle(contextDependencies);
+        if (cycle.isPresent()) {
+            getLog().error("Contexts cannot be split into modules, cyclic dependency: " + String.join(" -> ",
+                cycle.get()));
+            return;
+        }
+        if (generateSources) {
+            getLog().warn("generateSources is ignored when the contexts are split into modules");
+        }
+        Path baseDirPath = mavenProject.getBasedir().toPath();
+        Path contextsPath = baseDirPath.resolve(CONTEXTS);
+        String artifactId = mavenProject.getArtifactId();
+        String baseModule = artifactId + '-' + BASE_MODULE;
+        if (contexts.containsKey(BASE_MODULE)) {
+            getLog().error("Context name is reserved:" + BASE_MODULE);
+            return;
+        }
+        Path mainPackagePath = baseDirPath.resolve(SRC_PATH).resolve(MAIN_PATH).resolve(JAVA_PATH).resolve(
+            packageName.replace('.', File.separatorChar));
+        Path basePackagePath = contextsPath.resolve(BASE_MODULE).resolve(SRC_PATH).resolve(MAIN_PATH).resolve(
+            JAVA_PATH).resolve(packageName.replace('.', File.separatorChar));
+        ContextModulesUtil.createModule(getLog(), mavenProject, contextsPath.resolve(BASE_MODULE), baseModule,
+            List.of());
+        createAbstractsClasses(basePackagePath, mainPackagePath);
+
+        List<String> modules = new ArrayList<>(List.of(BASE_MODULE));
+        for (Map.Entry<String, List<JsonObject>> context : contexts.entrySet()) {
+            String contextName = context.getKey();
+            getLog().info("Creating context module " + contextName);
+            List<String> requiredModules = new ArrayList<>(List.of(baseModule));
+            contextDependencies.get(contextName).forEach(required -> requiredModules.add(artifactId + '-' + required));
+            Path modulePath = contextsPath.resolve(contextName);
+            ContextModulesUtil.createModule(getLog(), mavenProject, modulePath, artifactId + '-' + contextName,
+                requiredModules);
+            createEntitiesClasses(modulePath.resolve(SRC_PATH).resolve(MAIN_PATH).resolve(JAVA_PATH).resolve(
+                (packageName + '.' + contextName).replace('.', File.separatorChar)), context.getValue());
+            modules.add(contextName);
+        }
+        ContextModulesUtil.createAggregator(mavenProject, contextsPath, modules);
+        Path reactorFile = ContextModulesUtil.createReactor(mavenProject, CONTEXTS);
+        getLog().warn("The project depends on the context modules, build it with: mvn -f " + baseDirPath.relativize(
+            reactorFile) + " package");
+        try {
+            Model model = ProjectModelUtil.getModel(mavenProject);
+            modules.stream()
+                .map(module -> artifactId + '-' + module)
+                .filter(module -> model.getDependencies().stream().noneMatch(
+                    dependency -> dependency.getGroupId().equals(mavenProject.getGroupId())
+                        && dependency.getArtifactId().equals(module)))
+                .forEach(module -> model.addDependency(ContextModulesUtil.newModuleDependency(mavenProject, module)));
+            ProjectModelUtil.saveModel(mavenProject, model);
+        } catch (XmlPullParserException ex) {
             getLog().error(ex.getMessage(), ex);
         }
+    }
 
+    private String resolveType(String type, String currentPackage) {
+        String resolvedType = type;
+        for (Map.Entry<String, String> entityPackage : entityPackages.entrySet()) {
+            if (!entityPackage.getValue().equals(currentPackage)) {
+                resolvedType = resolvedType.replaceAll("(?<![\\w.])" + entityPackage.getKey() + "\\b",
+                    entityPackage.getValue() + ".model." + entityPackage.getKey());
+            }
+        }
+        return resolvedType;
     }
 
     private void createRepository(Path packageBaseRepository, JsonObject entity) {
         try {
             var entityName = entity.getString(NAME);
-            var packageName = projectModel.getString(PACKAGE_NAME);
+            var packageName = entityPackages.get(entityName);
             getLog().debug("Creando repositorio de " + entityName);
             String className = entityName + "Repository";
             Path target = packageBaseRepository.resolve(className + ".java");
             List<String> lines = new ArrayList<>();
             lines.add("package " + packageName + ".repositories;\n");
             lines.add("import " + packageName + ".model." + entityName + ";");
+            if (!packageName.equals(projectModel.getString(PACKAGE_NAME))) {
+                lines.add("import " + projectModel.getString(PACKAGE_NAME) + ".repositories.AbstractRepository;");
+                lines.add("import " + projectModel.getString(PACKAGE_NAME) + ".repositories.Page;");
+            }
             lines.add("import jakarta.enterprise.context.ApplicationScoped;");
             lines.add("import jakarta.inject.Inject;");
+            if (isFieldsNotEmpty(entity, FINDERS)) {
+                entity.getJsonObject(FINDERS)
+                    .entrySet()
+                    .stream()
+                    .filter(finder -> ProjectionUtil.isProjection(finder.getValue().asJsonObject())
+                    && !isModifyingFinder(finder.getValue().asJsonObject()))
+                    .map(finder -> ProjectionUtil.getDtoName(entityName, finder.getKey(),
+                    finder.getValue().asJsonObject()))
+                    .distinct()
+                    .forEach(dtoName -> lines.add("import " + packageName + "." + DTO + "." + dtoName + ";"));
+            }
+            if (isFieldsNotEmpty(entity, FINDERS) && entity.getJsonObject(FINDERS)
+                .values()
+                .stream()
+                .anyMatch(finder -> isStreamFinder(finder.asJsonObject()))) {
+                lines.add("import java.util.stream.Stream;");
+            }
+            if (isFieldsNotEmpty(entity, FINDERS) && entity.getJsonObject(FINDERS)
+                .values()
+                .stream()
+                .anyMatch(finder -> isModifyingFinder(finder.asJsonObject()))) {
+                lines.add("import jakarta.transaction.Transactional;");
+            }
             lines.add("import jakarta.persistence.EntityManager;\n");
             lines.add("@ApplicationScoped");
             Optional<Map.Entry<String, JsonValue>> pk = entity.getJsonObject(FIELDS)
@@ -166,7 +416,27 @@ public class CreateModelMojo extends AbstractMojo {
             lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "private EntityManager em;\n");
 
             lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "public " + className + "() {");
-            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "super(" + entityName + ".class);");
+            String sortColumns = entity.containsKey(SORT_COLUMNS)
+                ? entity.getJsonArray(SORT_COLUMNS)
+                .getValuesAs(JsonString.class)
+                .stream()
+                .map(column -> ", \"" + column.getString() + '"')
+                .collect(Collectors.joining())
+                : StringUtils.EMPTY;
+            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "super(" + entityName + ".class"
+                + sortColumns + ");");
+            if (entity.containsKey(BATCH_SIZE) || projectModel.containsKey(BATCH_SIZE)) {
+                lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "setBatchSize(" + getBatchSize(
+                    entityName, entity) + ");");
+            }
+            if (entity.containsKey(FETCH_SIZE)) {
+                lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "setFetchSize(" + entity.getInt(
+                    FETCH_SIZE) + ");");
+            }
+            if (entity.containsKey(IN_LIST_SIZE)) {
+                lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "setInListSize(" + entity.getInt(
+                    IN_LIST_SIZE) + ");");
+            }
             lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "}\n");
 
             lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "@Override");
@@ -177,58 +447,280 @@ public class CreateModelMojo extends AbstractMojo {
 
             if (isFieldsNotEmpty(entity, FINDERS)) {
                 getLog().debug("creando métodos de búsqueda");
-                entity.getJsonObject(FINDERS).forEach((name, aValue) -> {
-                    var value = aValue.asJsonObject();
-                    String params = "()";
-                    if (isFieldsNotEmpty(value, PARAMETERS)) {
-                        StringBuilder param = new StringBuilder();
-                        param.append("(\n");
-                        var parameters = value.getJsonObject(PARAMETERS);
-                        parameters.keySet().forEach(paramName -> {
-                            var type = parameters.getString(paramName);
-                            param.append(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2));
-                            param.append(type).append(' ');
-                            param.append(paramName).append(',');
-                        });
-                        param.setLength(param.length() - 1);
-                        param.append("\n").append(StringUtils.repeat(StringUtils.SPACE, Constants.TAB)).append(")");
-                        params = param.toString();
-                    }
-                    lines.add(
-                        String.format("%spublic %s findBy%s%s {", StringUtils.repeat(StringUtils.SPACE, Constants.TAB),
-                            value.getString(RETURN_VALUE_TYPE), name, params));
-                    lines.add(
-                        StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "return em." + (value.getBoolean(
-                        NATIVE_QUERY,
-                        false)
-                            ? "createNativeQuery"
-                            : "createNamedQuery") + "(\"" + entityName + ".findBy" + name + "\"," + entityName + ".class)");
-                    if (isFieldsNotEmpty(value, PARAMETERS)) {
-                        value.getJsonObject(PARAMETERS)
-                            .keySet()
-                            .forEach(paramName -> lines.add(StringUtils.repeat(StringUtils.SPACE,
-                            Constants.TAB * 3) + ".setParameter(\"" + paramName + "\"," + paramName + ")"));
-                    }
-                    if (value.getBoolean(UNIQUE, false)) {
-                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3) + ".getSingleResult();");
-                    } else {
-                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3) + ".getResultList();");
-                    }
-                    lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "}\n");
-                });
+                entity.getJsonObject(FINDERS)
+                    .forEach((name, value) -> addFinder(lines, entity, packageName, name, value.asJsonObject()));
             }
 
             lines.add("}");
-            Files.write(target, lines);
+            SourceFileUtil.write(target, lines, reproducible);
         } catch (IOException ex) {
             getLog().error(ex.getMessage(), ex);
         }
     }
 
+    private void addFinder(List<String> lines, JsonObject entity, String packageName, String name, JsonObject finder) {
+        var entityName = entity.getString(NAME);
+        List<String> parameters = new ArrayList<>();
+        if (isFieldsNotEmpty(finder, PARAMETERS)) {
+            finder.getJsonObject(PARAMETERS)
+                .forEach((paramName, type) -> parameters.add(
+                    resolveType(((JsonString) type).getString(), packageName) + ' ' + paramName));
+        }
+        if (isModifyingFinder(finder)) {
+            addModifyingMethod(lines, entityName, name, finder, parameters);
+            return;
+        }
+        boolean unique = finder.getBoolean(UNIQUE, false);
+        boolean projection = ProjectionUtil.isProjection(finder);
+        // una proyección devuelve el DTO en lugar de la entidad
+        String resultClass = projection ? ProjectionUtil.getDtoName(entityName, name, finder) : entityName;
+        String returnType;
+        if (projection) {
+            returnType = unique ? resultClass : "java.util.List<" + resultClass + ">";
+        } else {
+            returnType = resolveType(finder.getString(RETURN_VALUE_TYPE), packageName);
+        }
+        addFinderMethod(lines, entityName, resultClass, name, finder, returnType, parameters, null);
+        // las páginas de una consulta sin orden pueden repetir u omitir filas
+        var pagedQueryName = getPagedQueryName(entity, name, finder);
+        if (!unique && pagedQueryName.isEmpty()) {
+            getLog().warn("The finder " + name + " of " + entityName + " has no paged overload, since its query has "
+                + "no order by");
+        }
+        if (!unique && pagedQueryName.isPresent()) {
+            List<String> pagedParameters = new ArrayList<>(parameters);
+            pagedParameters.add("int offset");
+            pagedParameters.add("int limit");
+            addFinderMethod(lines, entityName, resultClass, name, finder, "Page<" + resultClass + ">",
+                pagedParameters, pagedQueryName.get());
+        }
+        if (isStreamFinder(finder)) {
+            addStreamMethod(lines, entityName, resultClass, name, finder, parameters);
+        }
+        addCountMethods(lines, entityName, name, finder, parameters);
+    }
+
+    private static boolean isStreamFinder(JsonObject finder) {
+        return finder.getBoolean(STREAM, false) && !finder.getBoolean(UNIQUE, false) && !isModifyingFinder(finder);
+    }
+
+    /**
+     * A finder with {@code "kind": "update"} or {@code "kind": "delete"} runs a bulk statement instead of a query.
+     */
+    private static boolean isModifyingFinder(JsonObject finder) {
+        return StringUtils.equalsAny(finder.getString(KIND, null), UPDATE, DELETE);
+    }
+
+    /**
+     * Name of the finder method and of its named query: {@code findBy<Name>}, or {@code updateBy<Name>} and
+     * {@code deleteBy<Name>} for the modifying finders.
+     */
+    private static String getFinderMethodName(String name, JsonObject finder) {
+        return (isModifyingFinder(finder) ? finder.getString(KIND) : "find") + "By" + name;
+    }
+
+    /**
+     * Adds the method of a modifying finder, which runs the statement in a transaction and returns the number of
+     * affected rows. The statement does not update the entities already loaded, nor the shared cache unless the
+     * finder has {@code "evict": true}.
+     */
+    private void addModifyingMethod(List<String> lines, String entityName, String name, JsonObject finder,
+                                    List<String> parameters) {
+        var tab = StringUtils.repeat(StringUtils.SPACE, Constants.TAB);
+        var methodName = getFinderMethodName(name, finder);
+        lines.add(tab + "@Transactional");
+        lines.add(tab + "public int " + methodName + "(" + String.join(", ", parameters) + ") {");
+        lines.add(tab + tab + "int count = em.createNamedQuery(\"" + entityName + "." + methodName + "\")");
+        addQueryParameters(lines, finder);
+        if (finder.containsKey(TIMEOUT_MS)) {
+            lines.add(tab + tab + tab + ".setHint(\"jakarta.persistence.query.timeout\", " + finder.getInt(TIMEOUT_MS)
+                + ")");
+        }
+        lines.add(tab + tab + tab + ".executeUpdate();");
+        if (finder.getBoolean(EVICT, false)) {
+            lines.add(tab + tab + "evictAll();");
+        }
+        lines.add(tab + tab + "return count;");
+        lines.add(tab + "}\n");
+    }
+
+    private void addStreamMethod(List<String> lines, String entityName, String resultClass, String name,
+                                 JsonObject finder, List<String> parameters) {
+        lines.add(String.format("%spublic Stream<%s> streamBy%s(%s) {",
+            StringUtils.repeat(StringUtils.SPACE, Constants.TAB), resultClass, name, String.join(", ", parameters)));
+        // los DTO no son administrados, no hace falta separarlos del contexto de persistencia
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "return " + (resultClass.equals(entityName)
+            ? "stream"
+            : "streamValues") + "(em.createNamedQuery(\"" + entityName + ".findBy" + name + "\"," + resultClass
+            + ".class)");
+        addQueryArguments(lines, entityName, finder);
+        lines.set(lines.size() - 1, lines.get(lines.size() - 1) + (finder.containsKey(FETCH_SIZE)
+            ? ", " + finder.getInt(FETCH_SIZE)
+            : StringUtils.EMPTY) + ");");
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "}\n");
+    }
+
+    private void addQueryArguments(List<String> lines, String entityName, JsonObject finder) {
+        addQueryParameters(lines, finder);
+        getFinderHints(entityName, finder).forEach((hint, value) -> lines.add(StringUtils.repeat(StringUtils.SPACE,
+            Constants.TAB * 3) + ".setHint(\"" + hint + "\", " + value + ")"));
+        if (finder.containsKey(FLUSH_MODE)) {
+            String flushMode = StringUtils.upperCase(finder.getString(FLUSH_MODE));
+            if (StringUtils.equalsAny(flushMode, "AUTO", "COMMIT")) {
+                lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3)
+                    + ".setFlushMode(jakarta.persistence.FlushModeType." + flushMode + ")");
+            } else {
+                getLog().warn("Invalid flushMode in " + entityName + ": " + finder.getString(FLUSH_MODE));
+            }
+        }
+    }
+
+    private static void addQueryParameters(List<String> lines, JsonObject finder) {
+        if (isFieldsNotEmpty(finder, PARAMETERS)) {
+            finder.getJsonObject(PARAMETERS)
+                .keySet()
+                .forEach(paramName -> lines.add(StringUtils.repeat(StringUtils.SPACE,
+                Constants.TAB * 3) + ".setParameter(\"" + paramName + "\"," + paramName + ")"));
+        }
+    }
+
+    /**
+     * Adds {@code countBy<Name>} and {@code existsBy<Name>}, which run the count and exists queries of the finder
+     * instead of reading its rows. The JPQL count is a {@code Long}, while the type of a native count depends on the
+     * database.
+     */
+    private void addCountMethods(List<String> lines, String entityName, String name, JsonObject finder,
+                                 List<String> parameters) {
+        var tab = StringUtils.repeat(StringUtils.SPACE, Constants.TAB);
+        var query = finder.getString(QUERY);
+        var nativeQuery = finder.getBoolean(NATIVE_QUERY, false);
+        if (ProjectionUtil.toCountQuery(query, nativeQuery).isPresent()) {
+            lines.add(tab + "public long countBy" + name + "(" + String.join(", ", parameters) + ") {");
+            if (nativeQuery) {
+                lines.add(tab + tab + "return ((Number) em.createNamedQuery(\"" + entityName + ".countBy" + name
+                    + "\")");
+                addQueryParameters(lines, finder);
+                lines.add(tab + tab + tab + ".getSingleResult()).longValue();");
+            } else {
+                lines.add(tab + tab + "return em.createNamedQuery(\"" + entityName + ".countBy" + name
+                    + "\", Long.class)");
+                addQueryParameters(lines, finder);
+                lines.add(tab + tab + tab + ".getSingleResult();");
+            }
+            lines.add(tab + "}\n");
+        }
+        if (ProjectionUtil.toExistsQuery(query, nativeQuery, null).isEmpty()) {
+            return;
+        }
+        lines.add(tab + "public boolean existsBy" + name + "(" + String.join(", ", parameters) + ") {");
+        lines.add(tab + tab + "return !em.createNamedQuery(\"" + entityName + ".existsBy" + name + "\")");
+        addQueryParameters(lines, finder);
+        lines.add(tab + tab + tab + ".setMaxResults(1)");
+        lines.add(tab + tab + tab + ".getResultList()");
+        lines.add(tab + tab + tab + ".isEmpty();");
+        lines.add(tab + "}\n");
+    }
+
+    /**
+     * Query hints of a finder, with the values as Java expressions. Each provider ignores the hints of the others.
+     */
+    private Map<String, String> getFinderHints(String entityName, JsonObject finder) {
+        Map<String, String> hints = new LinkedHashMap<>();
+        if (finder.containsKey(FETCH) && !ProjectionUtil.isProjection(finder)) {
+            hints.put("jakarta.persistence.fetchgraph", "em.getEntityGraph(\"" + entityName + "." + finder.getString(
+                FETCH) + "\")");
+        }
+        if (finder.containsKey(TIMEOUT_MS)) {
+            hints.put("jakarta.persistence.query.timeout", String.valueOf(finder.getInt(TIMEOUT_MS)));
+        }
+        var providers = getJpaProviders();
+        if (finder.containsKey(FETCH_SIZE)) {
+            if (providers.contains(JpaProviderType.HIBERNATE)) {
+                hints.put("org.hibernate.fetchSize", String.valueOf(finder.getInt(FETCH_SIZE)));
+            }
+            if (providers.contains(JpaProviderType.ECLIPSELINK)) {
+                hints.put("eclipselink.jdbc.fetch-size", String.valueOf(finder.getInt(FETCH_SIZE)));
+            }
+        }
+        // las entidades de solo lectura no se comparan al hacer flush
+        if (finder.getBoolean(READ_ONLY, false) && !ProjectionUtil.isProjection(finder)) {
+            if (providers.contains(JpaProviderType.HIBERNATE)) {
+                hints.put("org.hibernate.readOnly", "true");
+            }
+            if (providers.contains(JpaProviderType.ECLIPSELINK)) {
+                hints.put("eclipselink.read-only", "true");
+            }
+        }
+        if (finder.getBoolean(CACHEABLE, false)) {
+            if (providers.contains(JpaProviderType.HIBERNATE)) {
+                hints.put("org.hibernate.cacheable", "true");
+                if (finder.containsKey(REGION)) {
+                    hints.put("org.hibernate.cacheRegion", '"' + finder.getString(REGION) + '"');
+                }
+            }
+            if (providers.contains(JpaProviderType.ECLIPSELINK)) {
+                hints.put("eclipselink.query-results-cache", "true");
+                if (finder.containsKey(TTL)) {
+                    hints.put("eclipselink.query-results-cache.expiry", String.valueOf(finder.getInt(TTL) * 1000));
+                }
+            }
+        }
+        return hints;
+    }
+
+    /**
+     * Name of the query of the paged overload of a finder: the finder query if it is ordered, or the query with the
+     * order of {@code findAllSorted} otherwise. An unordered native query has no paged overload.
+     */
+    private Optional<String> getPagedQueryName(JsonObject entity, String name, JsonObject finder) {
+        var query = finder.getString(QUERY);
+        if (ProjectionUtil.isOrdered(query)) {
+            return Optional.of("findBy" + name);
+        }
+        return ProjectionUtil.getOrderByClause(query, finder.getBoolean(NATIVE_QUERY, false), getSortColumns(entity))
+            .map(orderBy -> "findBy" + name + "Sorted");
+    }
+
+    /**
+     * Adds a finder method. The paged overload runs the query given by {@code pagedQueryName}, and the other one the
+     * finder query.
+     */
+    private void addFinderMethod(List<String> lines, String entityName, String resultClass, String name,
+                                 JsonObject finder, String returnType, List<String> parameters,
+                                 String pagedQueryName) {
+        var paged = pagedQueryName != null;
+        String params = "()";
+        if (!parameters.isEmpty()) {
+            params = parameters.stream()
+                .map(param -> StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + param)
+                .collect(Collectors.joining(",\n", "(\n",
+                    "\n" + StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + ")"));
+        }
+        lines.add(String.format("%spublic %s findBy%s%s {", StringUtils.repeat(StringUtils.SPACE, Constants.TAB),
+            returnType, name, params));
+        // las consultas nativas también se declaran con nombre en la entidad (@NamedNativeQuery)
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "return " + (paged ? "Page.of(" : "")
+            + "em.createNamedQuery(\"" + entityName + "." + (paged ? pagedQueryName : "findBy" + name) + "\","
+            + resultClass + ".class)");
+        addQueryArguments(lines, entityName, finder);
+        if (paged) {
+            // se lee una fila más para saber si hay una página siguiente
+            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3) + ".setFirstResult(offset)");
+            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3) + ".setMaxResults(limit + 1)");
+            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3)
+                + ".getResultList(), offset, limit, null);");
+        } else if (finder.getBoolean(UNIQUE, false)) {
+            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3) + ".getSingleResult();");
+        } else {
+            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3) + ".getResultList();");
+        }
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "}\n");
+    }
+
     private void createService(Path packageBaseService, JsonObject entity) {
         try {
             var entityName = entity.getString(NAME);
-            var packageName = projectModel.getString(PACKAGE_NAME);
+            var packageName = entityPackages.get(entityName);
             getLog().debug("Creando servicio de " + entityName);
             String className = entityName + "Service";
             Path target = packageBaseService.resolve(className + ".java");
@@ -237,6 +729,10 @@ public class CreateModelMojo extends AbstractMojo {
             StringBuilder repositoryClass = new StringBuilder().append(entityName).append("Repository");
             lines.append("import ").append(packageName).append(".repositories.").append(repositoryClass).append(";\n");
             lines.append("import ").append(packageName).append(".model.").append(entityName).append(';').append('\n');
+            if (!packageName.equals(projectModel.getString(PACKAGE_NAME))) {
+                lines.append("import ").append(projectModel.getString(PACKAGE_NAME)).append(
+                    ".services.AbstractService;\n");
+            }
             lines.append("import jakarta.enterprise.context.ApplicationScoped;\n");
             lines.append("import jakarta.inject.Inject;\n\n");
             lines.append("@ApplicationScoped\n");
@@ -275,18 +771,61 @@ public class CreateModelMojo extends AbstractMojo {
                 .append(" getRepository(){\n");
             lines.append(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2)).append("return repository;\n");
             lines.append(StringUtils.repeat(StringUtils.SPACE, Constants.TAB)).append("}\n");
+            addBindMethods(lines, entity);
 
             lines.append('}');
-            Files.writeString(target, lines.toString());
+            SourceFileUtil.write(target, List.of(lines.toString()), reproducible);
         } catch (IOException ex) {
             getLog().error(ex.getMessage(), ex);
         }
     }
 
-    private void createAbstractsClasses(Path packageBasePath) {
+    /**
+     * Adds a {@code bind<Field>} method for each {@code ManyToOne} and {@code OneToOne} field, which sets the
+     * association from the id with a reference, without reading the associated row.
+     */
+    private void addBindMethods(StringBuilder lines, JsonObject entity) {
+        var tab = StringUtils.repeat(StringUtils.SPACE, Constants.TAB);
+        var entityName = entity.getString(NAME);
+        entity.getJsonObject(FIELDS).forEach((fieldName, value) -> {
+            var field = value.asJsonObject();
+            var type = field.getString(TYPE, StringUtils.EMPTY);
+            if (!StringUtils.startsWithAny(field.getString(JOIN, StringUtils.EMPTY), "ManyToOne", "OneToOne")
+                || !entityPackages.containsKey(type)) {
+                return;
+            }
+            var idType = getIdType(type);
+            if (idType.isEmpty()) {
+                return;
+            }
+            var typeClass = entityPackages.get(type) + ".model." + type;
+            var idName = fieldName + "Id";
+            lines.append('\n')
+                .append(tab).append("public void bind").append(StringUtils.capitalize(fieldName)).append('(')
+                .append(entityName).append(" model, ").append(idType.get()).append(' ').append(idName).append(") {\n")
+                .append(tab).append(tab).append("model.set").append(StringUtils.capitalize(fieldName)).append('(')
+                .append(idName).append(" == null ? null : getRepository().getReference(").append(typeClass)
+                .append(".class, ").append(idName).append("));\n")
+                .append(tab).append("}\n");
+        });
+    }
+
+    private Optional<String> getIdType(String entityName) {
+        return projectModel.getJsonArray(ENTITIES)
+            .stream()
+            .map(JsonValue::asJsonObject)
+            .filter(entity -> entity.getString(NAME).equals(entityName) && entity.containsKey(FIELDS))
+            .flatMap(entity -> entity.getJsonObject(FIELDS).values().stream())
+            .map(JsonValue::asJsonObject)
+            .filter(field -> field.getBoolean(PK, false))
+            .map(field -> field.getString(TYPE))
+            .findFirst();
+    }
+
+    private void createAbstractsClasses(Path packageBasePath, Path providerBasePath) {
         var packageName = projectModel.getString(PACKAGE_NAME);
         var projectName = projectModel.getString(PROJECT_NAME);
-        createFile(packageBasePath.resolve("repositories")
+        createFile(providerBasePath.resolve("repositories")
             .resolve("JpaProvider.java"), "/classes/JpaProvider.javatemplate",
             Map.of("{package}", packageName, "{unitNamePU}", projectName + "PU"));
         createFile(packageBasePath.resolve("services")
@@ -295,6 +834,10 @@ public class CreateModelMojo extends AbstractMojo {
         createFile(packageBasePath.resolve("repositories")
             .resolve("AbstractRepository.java"), "/classes/AbstractRepository.javatemplate",
             Map.of("{package}", packageName));
+        createFile(packageBasePath.resolve("repositories")
+            .resolve("Slice.java"), "/classes/Slice.javatemplate", Map.of("{package}", packageName));
+        createFile(packageBasePath.resolve("repositories")
+            .resolve("Page.java"), "/classes/Page.javatemplate", Map.of("{package}", packageName));
     }
 
     private void createFile(Path target, String source, Map<String, String> maps) {
@@ -303,12 +846,12 @@ public class CreateModelMojo extends AbstractMojo {
             Files.createDirectories(target.getParent());
             try (InputStream is = getClass().getResourceAsStream(source)) {
                 if (is != null) {
-                    List<String> code = IOUtils.readLines(is, Charset.defaultCharset());
+                    List<String> code = IOUtils.readLines(is, StandardCharsets.UTF_8);
                     List<String> newCode = code.stream()
                         .map(line -> StringUtils.replaceEach(line, maps.keySet()
                         .toArray(String[]::new), maps.values().toArray(String[]::new)))
                         .collect(Collectors.toList());
-                    Files.write(target, newCode);
+                    SourceFileUtil.write(target, newCode, reproducible);
                 }
             }
         } catch (IOException ex) {
@@ -319,12 +862,26 @@ public class CreateModelMojo extends AbstractMojo {
     private void createEntity(Path target, JsonObject entity) {
         try {
             List<String> lines = new ArrayList<>();
-            lines.add("package " + projectModel.getString(PACKAGE_NAME) + "." + "model" + ";\n");
-            lines.add("@lombok.Data");
-            if (isStringNotEmpty(entity, TABLE_NAME)) {
+            var packageName = entityPackages.get(entity.getString(NAME));
+            lines.add("package " + packageName + "." + "model" + ";\n");
+            var lombokData = entity.getBoolean(LOMBOK_DATA, projectModel.getBoolean(LOMBOK_DATA, false));
+            if (lombokData) {
+                lines.add("@lombok.Data");
+            } else {
+                lines.add("@lombok.Getter");
+                lines.add("@lombok.Setter");
+                lines.add("@lombok.ToString");
+            }
+            var indexes = IndexUtil.getIndexes(entity);
+            if (!indexes.isEmpty()) {
+                addTable(lines, entity, indexes);
+            } else if (isStringNotEmpty(entity, TABLE_NAME)) {
                 lines.add(String.format("@jakarta.persistence.Table(name = \"%s\" )", entity.getString(TABLE_NAME)));
             }
             lines.add("@jakarta.persistence.Entity");
+            if (entity.containsKey(CACHE)) {
+                lines.add("@jakarta.persistence.Cacheable");
+            }
             if (entity.containsKey(FINDERS)) {
                 entity.getJsonObject(FINDERS)
                     .entrySet()
@@ -336,14 +893,29 @@ public class CreateModelMojo extends AbstractMojo {
                         var value = entry.getValue().asJsonObject();
                         lines.add("@jakarta.persistence.NamedNativeQuery(");
                         lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + String.format(
-                            "name = \"%s.findBy%s\",", entity.getString(NAME), entry.getKey()));
+                            "name = \"%s.%s\",", entity.getString(NAME), getFinderMethodName(entry.getKey(), value)));
+                        if (isModifyingFinder(value)) {
+                            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "query = \""
+                                + value.getString(QUERY) + "\"");
+                            lines.add(")");
+                            return;
+                        }
                         lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "query = \"" + value.getString(
-                            QUERY) + ",\n");
+                            QUERY) + "\",");
+                        if (ProjectionUtil.isProjection(value)) {
+                            var dtoName = ProjectionUtil.getDtoName(entity.getString(NAME), entry.getKey(), value);
+                            lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "resultSetMapping = \""
+                                + entity.getString(NAME) + "." + dtoName + "\"");
+                            lines.add(")");
+                            addResultSetMapping(lines, entity, dtoName, value);
+                            return;
+                        }
                         lines.add(
-                            StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "resultClass = " + value.getString(
-                            RETURN_VALUE_TYPE));
+                            StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "resultClass = " + entity.getString(
+                            NAME) + ".class");
                         lines.add(")");
                     });
+                addNativeCountQueries(lines, entity);
                 entity.getJsonObject(FINDERS)
                     .entrySet()
                     .stream()
@@ -354,12 +926,28 @@ public class CreateModelMojo extends AbstractMojo {
                         var value = entry.getValue().asJsonObject();
                         lines.add("@jakarta.persistence.NamedQuery(");
                         lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "name = \"" + entity.getString(
-                            NAME) + ".findBy" + entry.getKey() + "\",");
-                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "query = \"" + value.getString(
-                            QUERY) + "\"");
+                            NAME) + "." + getFinderMethodName(entry.getKey(), value) + "\",");
+                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "query = \"" + getFinderQuery(
+                            entity, entry.getKey(), value) + "\"");
                         lines.add(")");
                     });
             }
+            if (entity.containsKey(FETCH_PLANS)) {
+                entity.getJsonObject(FETCH_PLANS)
+                    .forEach((name, attributes) -> addNamedEntityGraph(lines, entity.getString(NAME), name,
+                    attributes.asJsonArray()
+                        .getValuesAs(JsonString.class)
+                        .stream()
+                        .map(JsonString::getString)
+                        .collect(Collectors.toList())));
+            }
+            getEntityNamedQueries(entity).forEach((name, query) -> {
+                lines.add("@jakarta.persistence.NamedQuery(");
+                lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "name = \"" + entity.getString(NAME)
+                    + "." + name + "\",");
+                lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "query = \"" + query + "\"");
+                lines.add(")");
+            });
             lines.add("public class " + entity.getString(NAME) + "{\n");
             if (entity.containsKey(FIELDS)) {
                 entity.getJsonObject(FIELDS).forEach((key, item) -> {
@@ -367,10 +955,13 @@ public class CreateModelMojo extends AbstractMojo {
                     if (value.containsKey(PK) && value.getBoolean(PK)) {
                         lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "@jakarta.persistence.Id");
                     }
+                    if (isVersionField(entity, key, value)) {
+                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "@jakarta.persistence.Version");
+                    }
                     var isJoinPresent = isStringNotEmpty(value, JOIN);
                     if (isJoinPresent) {
                         lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + String.format(
-                            "@jakarta.persistence.%s", value.getString(JOIN)));
+                            "@jakarta.persistence.%s", getJoinAnnotation(value)));
                     }
                     if (value.containsKey(COLUMN_NAME)) {
                         if (!isJoinPresent) {
@@ -395,29 +986,400 @@ public class CreateModelMojo extends AbstractMojo {
 
                         }
                     }
-                    if (isStringNotEmpty(value, GENERATED_VALUE)) {
-
-                        GenerationType generatedValueType = ObjectUtils.defaultIfNull(
-                            EnumUtils.getEnum(GenerationType.class,
-                                StringUtils.upperCase(value.getString(GENERATED_VALUE))), GenerationType.AUTO);
-                        lines.add(StringUtils.repeat(StringUtils.SPACE,
-                            Constants.TAB) + "@jakarta.persistence.GeneratedValue(");
-                        lines.add(StringUtils.repeat(StringUtils.SPACE,
-                            Constants.TAB * 2) + "strategy = jakarta.persistence.GenerationType." + generatedValueType.name());
-                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + ")");
+                    if (isStringNotEmpty(value, GENERATED_VALUE) || value.containsKey(GENERATOR)) {
+                        addGeneratedValue(lines, entity, key, value);
+                    }
+                    if (value.getBoolean(LOB, false)) {
+                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "@jakarta.persistence.Lob");
                     }
-                    lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "private " + value.getString(
-                        TYPE) + " " + key + ";\n");
+                    if (isLazyBasic(value)) {
+                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB)
+                            + "@jakarta.persistence.Basic(fetch = jakarta.persistence.FetchType.LAZY)");
+                    }
+                    // las relaciones, colecciones y LOB se leen de forma diferida, toString las cargaría
+                    if (!lombokData && (isJoinPresent || value.getString(TYPE).contains("<") || value.getBoolean(LOB,
+                        false) || isLazyBasic(value))) {
+                        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "@lombok.ToString.Exclude");
+                    }
+                    lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "private " + resolveType(
+                        value.getString(TYPE), packageName) + " " + key + ";\n");
                 });
             }
+            if (isVersionFieldMissing(entity)) {
+                lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "@jakarta.persistence.Version");
+                lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "private Long version;\n");
+            }
+            if (!lombokData) {
+                addEqualsAndHashCode(lines, entity);
+            }
             lines.add("}");
 
-            Files.write(target, lines);
+            SourceFileUtil.write(target, lines, reproducible);
         } catch (IOException ex) {
             getLog().error(ex.getMessage(), ex);
         }
     }
 
+    /**
+     * A basic field with {@code "fetch": "lazy"} is read when it is first accessed, instead of with the entity.
+     */
+    private static boolean isLazyBasic(JsonObject field) {
+        return !isStringNotEmpty(field, JOIN) && LAZY.equalsIgnoreCase(field.getString(FETCH, StringUtils.EMPTY));
+    }
+
+    /**
+     * Adds {@code equals} and {@code hashCode} based on the id, so they do not read the lazy relations. An entity
+     * without id is only equal to itself, and the hash code does not change when the id is assigned on persist. The other
+     * entity can be a proxy of a subclass, whose fields are not initialized, so it is compared with {@code instanceof}
+     * and its id is read with the getter.
+     */
+    private static void addEqualsAndHashCode(List<String> lines, JsonObject entity) {
+        var idName = entity.containsKey(FIELDS)
+            ? entity.getJsonObject(FIELDS)
+            .entrySet()
+            .stream()
+            .filter(field -> field.getValue().asJsonObject().getBoolean(PK, false))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            : Optional.<String>empty();
+        if (idName.isEmpty()) {
+            return;
+        }
+        var tab = StringUtils.repeat(StringUtils.SPACE, Constants.TAB);
+        var entityName = entity.getString(NAME);
+        var getter = "get" + StringUtils.capitalize(idName.get()) + "()";
+        lines.add(tab + "@Override");
+        lines.add(tab + "public boolean equals(Object other) {");
+        lines.add(tab + tab + "if (this == other) {");
+        lines.add(tab + tab + tab + "return true;");
+        lines.add(tab + tab + "}");
+        lines.add(tab + tab + "if (!(other instanceof " + entityName + ")) {");
+        lines.add(tab + tab + tab + "return false;");
+        lines.add(tab + tab + "}");
+        lines.add(tab + tab + "return " + getter + " != null && " + getter + ".equals(((" + entityName + ") other)."
+            + getter + ");");
+        lines.add(tab + "}\n");
+        lines.add(tab + "@Override");
+        lines.add(tab + "public int hashCode() {");
+        lines.add(tab + tab + "return " + entityName + ".class.hashCode();");
+        lines.add(tab + "}");
+    }
+
+    /**
+     * A field marked with {@code "version": true} is the version of the entity. In a versioned entity without a marked
+     * field, a field named {@code version} is used, if its type can be a version.
+     */
+    private boolean isVersionField(JsonObject entity, String fieldName, JsonObject field) {
+        if (field.getBoolean(VERSION, false)) {
+            return true;
+        }
+        if (!VERSION.equals(fieldName) || !entity.getBoolean(VERSIONED, projectModel.getBoolean(VERSIONED, false))
+            || entity.getJsonObject(FIELDS).values().stream().anyMatch(
+            value -> value.asJsonObject().getBoolean(VERSION, false))) {
+            return false;
+        }
+        String type = field.getString(TYPE);
+        if (VERSION_TYPES.contains(StringUtils.removeStart(type, "java.lang."))) {
+            return true;
+        }
+        getLog().error(String.format("The field version of %s is %s, which cannot be a version; use int, short, long, "
+            + "java.sql.Timestamp, java.time.Instant or java.time.LocalDateTime, or mark another field with \"version\": true",
+            entity.getString(NAME), type));
+        return false;
+    }
+
+    /**
+     * A versioned entity, or every entity of a versioned model, gets a {@code version} field if it does not declare
+     * one.
+     */
+    private boolean isVersionFieldMissing(JsonObject entity) {
+        if (!entity.getBoolean(VERSIONED, projectModel.getBoolean(VERSIONED, false))) {
+            return false;
+        }
+        var fields = entity.containsKey(FIELDS) ? entity.getJsonObject(FIELDS) : JsonValue.EMPTY_JSON_OBJECT;
+        return !fields.containsKey(VERSION) && fields.values()
+            .stream()
+            .noneMatch(field -> field.asJsonObject().getBoolean(VERSION, false));
+    }
+
+    private static void addTable(List<String> lines, JsonObject entity, List<JsonObject> indexes) {
+        var tab = StringUtils.repeat(StringUtils.SPACE, Constants.TAB);
+        lines.add("@jakarta.persistence.Table(");
+        if (isStringNotEmpty(entity, TABLE_NAME)) {
+            lines.add(tab + "name = \"" + entity.getString(TABLE_NAME) + "\",");
+        }
+        lines.add(tab + "indexes = {");
+        lines.add(indexes.stream()
+            .map(index -> tab + tab + "@jakarta.persistence.Index(name = \"" + index.getString(NAME)
+                + "\", columnList = \"" + index.getString(COLUMNS) + "\"" + (index.getBoolean(UNIQUE)
+                ? ", unique = true"
+                : StringUtils.EMPTY) + ")")
+            .collect(Collectors.joining(",\n")));
+        lines.add(tab + "}");
+        lines.add(")");
+    }
+
+    /**
+     * Adds {@code @GeneratedValue}, with a {@code @SequenceGenerator} or {@code @TableGenerator} when the field has a
+     * {@code generator}, so the ids are allocated in blocks of {@code allocationSize}.
+     */
+    private void addGeneratedValue(List<String> lines, JsonObject entity, String fieldName, JsonObject field) {
+        var tab = StringUtils.repeat(StringUtils.SPACE, Constants.TAB);
+        var entityName = entity.getString(NAME);
+        var generator = field.containsKey(GENERATOR) ? field.getJsonObject(GENERATOR) : JsonValue.EMPTY_JSON_OBJECT;
+        GenerationType defaultType = generator.containsKey(TABLE) ? GenerationType.TABLE : GenerationType.SEQUENCE;
+        GenerationType generatedValueType = ObjectUtils.defaultIfNull(EnumUtils.getEnum(GenerationType.class,
+            StringUtils.upperCase(field.getString(GENERATED_VALUE, defaultType.name()))), GenerationType.AUTO);
+        if (generatedValueType == GenerationType.IDENTITY) {
+            getLog().warn(String.format("%s.%s uses IDENTITY, which disables the JDBC batch of inserts; use a "
+                + "sequence generator with allocationSize", entityName, fieldName));
+        }
+        var generatorName = entityName + "_" + fieldName + "_gen";
+        List<String> attributes = new ArrayList<>();
+        attributes.add(tab + tab + "name = \"" + generatorName + "\"");
+        if (generatedValueType == GenerationType.SEQUENCE && field.containsKey(GENERATOR)) {
+            if (generator.containsKey(SEQUENCE_NAME)) {
+                attributes.add(tab + tab + "sequenceName = \"" + generator.getString(SEQUENCE_NAME) + "\"");
+            }
+        } else if (generatedValueType == GenerationType.TABLE && field.containsKey(GENERATOR)) {
+            attributes.add(tab + tab + "table = \"" + generator.getString(TABLE, "id_generator") + "\"");
+            attributes.add(tab + tab + "pkColumnValue = \"" + generator.getString(PK_COLUMN_VALUE, entityName)
+                + "\"");
+        } else {
+            if (field.containsKey(GENERATOR)) {
+                getLog().warn(String.format("The generator of %s.%s is ignored, since it uses %s; use \"sequence\" or "
+                    + "\"table\" as generatedValue", entityName, fieldName, generatedValueType));
+            }
+            generatorName = null;
+        }
+        if (generatorName != null) {
+            if (generator.containsKey(ALLOCATION_SIZE)) {
+                attributes.add(tab + tab + "allocationSize = " + generator.getInt(ALLOCATION_SIZE));
+            }
+            if (generator.containsKey(INITIAL_VALUE)) {
+                attributes.add(tab + tab + "initialValue = " + generator.getInt(INITIAL_VALUE));
+            }
+            lines.add(tab + "@jakarta.persistence." + (generatedValueType == GenerationType.SEQUENCE
+                ? "SequenceGenerator("
+                : "TableGenerator("));
+            lines.add(String.join(",\n", attributes));
+            lines.add(tab + ")");
+        }
+        lines.add(tab + "@jakarta.persistence.GeneratedValue(");
+        lines.add(tab + tab + "strategy = jakarta.persistence.GenerationType." + generatedValueType.name() + (
+            generatorName == null ? StringUtils.EMPTY : ","));
+        if (generatorName != null) {
+            lines.add(tab + tab + "generator = \"" + generatorName + "\"");
+        }
+        lines.add(tab + ")");
+    }
+
+    /**
+     * The relations are loaded lazily unless the field has {@code "fetch": "eager"}; the finders load them with a
+     * fetch plan.
+     */
+    private static String getJoinAnnotation(JsonObject field) {
+        var join = field.getString(JOIN);
+        if (StringUtils.contains(join, "fetch")) {
+            return join;
+        }
+        var fetch = "fetch = jakarta.persistence.FetchType." + (EAGER.equalsIgnoreCase(field.getString(FETCH,
+            StringUtils.EMPTY)) ? "EAGER" : "LAZY");
+        if (!join.contains("(")) {
+            return join + "(" + fetch + ")";
+        }
+        return StringUtils.replaceOnce(join, "(", "(" + fetch + (StringUtils.substringAfter(join, "(").trim()
+            .startsWith(")") ? StringUtils.EMPTY : ", "));
+    }
+
+    /**
+     * Creates a {@code @NamedEntityGraph} with the attributes of a fetch plan. A nested attribute, as
+     * {@code items.product}, is added to a subgraph.
+     */
+    private void addNamedEntityGraph(List<String> lines, String entityName, String planName,
+                                     List<String> attributes) {
+        Map<String, List<String>> graphs = new TreeMap<>();
+        graphs.put(StringUtils.EMPTY, new ArrayList<>());
+        for (String attribute : attributes) {
+            var parent = StringUtils.EMPTY;
+            for (String node : attribute.split("\\.")) {
+                var path = parent.isEmpty() ? node : parent + "." + node;
+                var nodes = graphs.computeIfAbsent(parent, key -> new ArrayList<>());
+                if (!nodes.contains(node)) {
+                    nodes.add(node);
+                }
+                parent = path;
+            }
+        }
+        var tab = StringUtils.repeat(StringUtils.SPACE, Constants.TAB);
+        lines.add("@jakarta.persistence.NamedEntityGraph(");
+        lines.add(tab + "name = \"" + entityName + "." + planName + "\",");
+        lines.add(tab + "attributeNodes = {");
+        lines.add(getAttributeNodes(graphs, StringUtils.EMPTY, tab + tab));
+        var subgraphs = graphs.keySet().stream().filter(key -> !key.isEmpty()).collect(Collectors.toList());
+        if (subgraphs.isEmpty()) {
+            lines.add(tab + "}");
+        } else {
+            lines.add(tab + "},");
+            lines.add(tab + "subgraphs = {");
+            lines.add(subgraphs.stream()
+                .map(subgraph -> tab + tab + "@jakarta.persistence.NamedSubgraph(name = \"" + subgraph
+                    + "\", attributeNodes = {\n" + getAttributeNodes(graphs, subgraph, tab + tab + tab) + "\n" + tab
+                    + tab + "})")
+                .collect(Collectors.joining(",\n")));
+            lines.add(tab + "}");
+        }
+        lines.add(")");
+    }
+
+    private static String getAttributeNodes(Map<String, List<String>> graphs, String parent, String indent) {
+        return graphs.get(parent).stream().map(node -> {
+            var path = parent.isEmpty() ? node : parent + "." + node;
+            return indent + "@jakarta.persistence.NamedAttributeNode(" + (graphs.containsKey(path)
+                ? "value = \"" + node + "\", subgraph = \"" + path + "\""
+                : "\"" + node + "\"") + ")";
+        }).collect(Collectors.joining(",\n"));
+    }
+
+    private void addNativeCountQueries(List<String> lines, JsonObject entity) {
+        var tab = StringUtils.repeat(StringUtils.SPACE, Constants.TAB);
+        entity.getJsonObject(FINDERS)
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().asJsonObject().getBoolean(NATIVE_QUERY, false))
+            .filter(entry -> !isModifyingFinder(entry.getValue().asJsonObject()))
+            .forEach(entry -> {
+                var query = entry.getValue().asJsonObject().getString(QUERY);
+                Map.of("countBy", ProjectionUtil.toCountQuery(query, true),
+                        "existsBy", ProjectionUtil.toExistsQuery(query, true, null))
+                    .entrySet()
+                    .stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(countQuery -> countQuery.getValue().ifPresent(sql -> {
+                        lines.add("@jakarta.persistence.NamedNativeQuery(");
+                        lines.add(tab + "name = \"" + entity.getString(NAME) + "." + countQuery.getKey()
+                            + entry.getKey() + "\",");
+                        lines.add(tab + "query = \"" + sql + "\"");
+                        lines.add(")");
+                    }));
+            });
+    }
+
+    /**
+     * JPQL query of a finder. The select clause of a projection is rewritten as the constructor of the DTO.
+     */
+    private String getFinderQuery(JsonObject entity, String finderName, JsonObject finder) {
+        var query = finder.getString(QUERY);
+        if (!ProjectionUtil.isProjection(finder)) {
+            return query;
+        }
+        var entityName = entity.getString(NAME);
+        var dtoClass = entityPackages.get(entityName) + "." + DTO + "." + ProjectionUtil.getDtoName(entityName,
+            finderName, finder);
+        return ProjectionUtil.toConstructorQuery(query, dtoClass, ProjectionUtil.getFields(finder)).orElseGet(() -> {
+            getLog().error("The query of the projection " + dtoClass + " must be 'select <alias> from ...': " + query);
+            return query;
+        });
+    }
+
+    /**
+     * Maps the columns of a native query to the constructor of the DTO.
+     */
+    private void addResultSetMapping(List<String> lines, JsonObject entity, String dtoName, JsonObject finder) {
+        var fields = entity.getJsonObject(FIELDS);
+        lines.add("@jakarta.persistence.SqlResultSetMapping(");
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + "name = \"" + entity.getString(NAME) + "."
+            + dtoName + "\",");
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB)
+            + "classes = @jakarta.persistence.ConstructorResult(");
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "targetClass = " + entityPackages.get(
+            entity.getString(NAME)) + "." + DTO + "." + dtoName + ".class,");
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "columns = {");
+        List<String> columns = ProjectionUtil.getFields(finder).stream().map(fieldName -> {
+            var field = fields.containsKey(fieldName) ? fields.getJsonObject(fieldName) : JsonValue.EMPTY_JSON_OBJECT;
+            var type = field.getString(TYPE, "Object");
+            return StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 3) + "@jakarta.persistence.ColumnResult("
+                + "name = \"" + field.getString(COLUMN_NAME, fieldName) + "\"" + (type.contains("<")
+                ? StringUtils.EMPTY
+                : ", type = " + resolveType(type, null) + ".class") + ")";
+        }).collect(Collectors.toList());
+        lines.add(String.join(",\n", columns));
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB * 2) + "}");
+        lines.add(StringUtils.repeat(StringUtils.SPACE, Constants.TAB) + ")");
+        lines.add(")");
+    }
+
+    /**
+     * Fields that give a stable order to the rows of the entity: the {@code sortColumns}, followed by the id.
+     */
+    private static List<String> getSortColumns(JsonObject entity) {
+        List<String> sortColumns = new ArrayList<>();
+        if (entity.containsKey(SORT_COLUMNS)) {
+            entity.getJsonArray(SORT_COLUMNS)
+                .getValuesAs(JsonString.class)
+                .forEach(column -> sortColumns.add(column.getString()));
+        }
+        if (entity.containsKey(FIELDS)) {
+            entity.getJsonObject(FIELDS)
+                .entrySet()
+                .stream()
+                .filter(field -> field.getValue().asJsonObject().getBoolean(PK, false))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .filter(id -> !sortColumns.contains(id))
+                .ifPresent(sortColumns::add);
+        }
+        return sortColumns;
+    }
+
+    /**
+     * Named queries used by the AbstractRepository, and the ordered queries of the paged finders, so they are parsed
+     * once at deployment instead of building a criteria query on each call.
+     */
+    private Map<String, String> getEntityNamedQueries(JsonObject entity) {
+        var entityName = entity.getString(NAME);
+        var select = "select e from " + entityName + " e";
+        Optional<String> idName = entity.containsKey(FIELDS)
+            ? entity.getJsonObject(FIELDS)
+            .entrySet()
+            .stream()
+            .filter(field -> field.getValue().asJsonObject().getBoolean(PK, false))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            : Optional.empty();
+        List<String> sortColumns = getSortColumns(entity);
+        Map<String, String> queries = new TreeMap<>();
+        queries.put("findAll", select);
+        queries.put("findAllSorted", sortColumns.isEmpty()
+            ? select
+            : sortColumns.stream()
+            .map(column -> "e." + column)
+            .collect(Collectors.joining(", ", select + " order by ", StringUtils.EMPTY)));
+        queries.put("count", "select count(e) from " + entityName + " e");
+        if (isFieldsNotEmpty(entity, FINDERS)) {
+            entity.getJsonObject(FINDERS).forEach((name, value) -> {
+                var finder = value.asJsonObject();
+                if (finder.getBoolean(NATIVE_QUERY, false) || isModifyingFinder(finder)) {
+                    return;
+                }
+                var query = finder.getString(QUERY);
+                if (!finder.getBoolean(UNIQUE, false)) {
+                    ProjectionUtil.getOrderByClause(query, false, sortColumns).ifPresent(
+                        orderBy -> queries.put("findBy" + name + "Sorted", getFinderQuery(entity, name, finder)
+                            + orderBy));
+                }
+                ProjectionUtil.toCountQuery(query, false).ifPresent(count -> queries.put("countBy" + name, count));
+                ProjectionUtil.toExistsQuery(query, false, idName.orElse(null))
+                    .ifPresent(exists -> queries.put("existsBy" + name, exists));
+            });
+        }
+        idName.ifPresent(id -> {
+            queries.put("existsById", "select count(e) from " + entityName + " e where e." + id + " = :id");
+            queries.put("findAllByIds", select + " where e." + id + " in :ids");
+        });
+        return queries;
+    }
+
     private void addDependencies() {
         if (this.style == DatasourceDefinitionStyleType.WEB) { //se agrega dependencia solo si está incorporado dentro del .war
             addDBDependencies();
@@ -425,6 +1387,72 @@ public class CreateModelMojo extends AbstractMojo {
         DependenciesUtil.addProjectLombokDependency(getLog(), mavenProject);
     }
 
+    /**
+     * Enhances the entities at build time for the JPA provider with {@code "enhancement": true}: Hibernate with lazy
+     * initialization and dirty tracking, EclipseLink with static weaving. Without it, the Hibernate plugin is only
+     * added with lazy initialization when there are lazy basic fields, since Hibernate only loads them lazily on
+     * enhanced entities. The enhanced classes depend on the provider, so nothing is added when it is not known.
+     */
+    private void addEnhancement() {
+        var enhancement = projectModel.getBoolean(ENHANCEMENT, false);
+        var lazyBasicFields = hasLazyBasicFields();
+        if (!enhancement && !lazyBasicFields) {
+            return;
+        }
+        var providers = getJpaProviders();
+        if (providers.size() != 1) {
+            getLog().warn("The entities are not enhanced at build time, set the JPA provider in datasource.provider");
+            return;
+        }
+        for (Path pomFile : getEntityPomFiles()) {
+            if (providers.contains(JpaProviderType.HIBERNATE)) {
+                Map<String, String> options = new LinkedHashMap<>();
+                options.put("enableLazyInitialization", "true");
+                if (enhancement) {
+                    options.put("enableDirtyTracking", "true");
+                }
+                EnhancementUtil.addHibernateEnhancePlugin(getLog(), pomFile, options);
+            } else if (enhancement) {
+                EnhancementUtil.addEclipseLinkWeavePlugin(getLog(), pomFile);
+            }
+        }
+    }
+
+    /**
+     * The pom.xml of the project, or of each context module when the contexts are split.
+     */
+    private List<Path> getEntityPomFiles() {
+        if (!splitContexts) {
+            return List.of(mavenProject.getFile().toPath());
+        }
+        var contextsPath = mavenProject.getBasedir().toPath().resolve(CONTEXTS);
+        return ContextModulesUtil.groupByContext(projectModel.getJsonArray(ENTITIES))
+            .keySet()
+            .stream()
+            .map(context -> contextsPath.resolve(context).resolve("pom.xml"))
+            .filter(Files::isRegularFile)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Static weaving property of EclipseLink, when its plugin weaves the entities at build time.
+     */
+    private Map<String, String> getWeavingProperties() {
+        return projectModel.getBoolean(ENHANCEMENT, false) && getJpaProviders().equals(EnumSet.of(
+            JpaProviderType.ECLIPSELINK))
+            ? Map.of("eclipselink.weaving", "static")
+            : Map.of();
+    }
+
+    private boolean hasLazyBasicFields() {
+        return projectModel.getJsonArray(ENTITIES)
+            .stream()
+            .map(JsonValue::asJsonObject)
+            .filter(entity -> entity.containsKey(FIELDS))
+            .flatMap(entity -> entity.getJsonObject(FIELDS).values().stream())
+            .anyMatch(field -> isLazyBasic(field.asJsonObject()));
+    }
+
     private void addDBDependencies() {
         try {
             getLog().debug("Add DB Dependencies");
@@ -505,7 +1533,14 @@ public class CreateModelMojo extends AbstractMojo {
                 } catch (XPathExpressionException ex) {
                     getLog().error(ex.getMessage(), ex);
                 }
-                PersistenceXmlUtil.saveWebXml(baseDir, persistenceXml);
+                PersistenceXmlUtil.saveWebXml(baseDir, persistenceXml, reproducible);
+            }
+            if (addPersistenceProperties(persistenceXml, persistenceName)) {
+                PersistenceXmlUtil.saveWebXml(baseDir, persistenceXml, reproducible);
+            }
+            if (splitContexts) {
+                addPersistenceClasses(persistenceXml, persistenceName);
+                PersistenceXmlUtil.saveWebXml(baseDir, persistenceXml, reproducible);
             }
 
         } catch (XPathExpressionException | IOException ex) {
@@ -514,6 +1549,248 @@ public class CreateModelMojo extends AbstractMojo {
 
     }
 
+    private boolean addPersistenceProperties(Document persistenceXml, String persistenceName)
+        throws XPathExpressionException {
+        boolean changed = addSharedCacheMode(persistenceXml, persistenceName);
+        changed |= PersistenceXmlUtil.addMissingProperties(persistenceXml, persistenceName, getBatchProperties());
+        changed |= PersistenceXmlUtil.addMissingProperties(persistenceXml, persistenceName, getCacheProperties());
+        changed |= PersistenceXmlUtil.addMissingProperties(persistenceXml, persistenceName, getWeavingProperties());
+        return changed;
+    }
+
+    /**
+     * With {@code generateSources} the persistence.xml file is not modified, so it warns when the file lacks the
+     * persistence unit or the properties that the model requires.
+     */
+    private void checkPersistenceXML() {
+        try {
+            var baseDir = mavenProject.getBasedir();
+            var persistenceName = projectModel.getString(PROJECT_NAME) + "PU";
+            boolean outdated = !Files.isRegularFile(PersistenceXmlUtil.getPersistenceXmlPath(baseDir));
+            if (!outdated) {
+                var persistenceXml = PersistenceXmlUtil.openPersistenceXml(baseDir);
+                outdated = DocumentXmlUtil.listElementsByFilter(persistenceXml,
+                    String.format("/persistence/persistence-unit[@name=\"%s\"]", persistenceName)).isEmpty()
+                    || addPersistenceProperties(persistenceXml, persistenceName);
+            }
+            if (outdated) {
+                getLog().warn("persistence.xml is out of date with " + modelProjectFile
+                    + ", and it is not updated with generateSources. Run create-model without generateSources to "
+                    + "update it, the datasource, the dependencies and the enhancement of the pom.xml");
+            }
+        } catch (XPathExpressionException | IOException ex) {
+            getLog().error(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Batch size of the entity, or of the model when the entity does not set it. A size that is not positive is
+     * reported, and the default one is used.
+     */
+    private int getBatchSize(String name, JsonObject entity) {
+        int batchSize = entity.getInt(BATCH_SIZE, projectModel.getInt(BATCH_SIZE, DEFAULT_BATCH_SIZE));
+        if (batchSize <= 0) {
+            getLog().error("The batchSize of " + name + " must be positive: " + batchSize + ", using "
+                + DEFAULT_BATCH_SIZE);
+            return DEFAULT_BATCH_SIZE;
+        }
+        return batchSize;
+    }
+
+    /**
+     * JDBC batch properties, for the JPA provider of the server. When the provider is not known, the properties of all
+     * the providers are added, since each one ignores the properties of the others.
+     */
+    private Map<String, String> getBatchProperties() {
+        var batchSize = String.valueOf(getBatchSize("model.json", projectModel));
+        Map<String, String> properties = new TreeMap<>();
+        for (JpaProviderType provider : getJpaProviders()) {
+            switch (provider) {
+                case ECLIPSELINK:
+                    properties.put("eclipselink.jdbc.batch-writing", "JDBC");
+                    properties.put("eclipselink.jdbc.batch-writing.size", batchSize);
+                    break;
+                case HIBERNATE:
+                    properties.put("hibernate.jdbc.batch_size", batchSize);
+                    properties.put("hibernate.order_inserts", "true");
+                    properties.put("hibernate.order_updates", "true");
+                    properties.put("hibernate.jdbc.batch_versioned_data", "true");
+                    break;
+            }
+        }
+        return properties;
+    }
+
+    private List<JsonObject> getCachedEntities() {
+        return projectModel.containsKey(ENTITIES)
+            ? projectModel.getJsonArray(ENTITIES)
+            .stream()
+            .map(JsonValue::asJsonObject)
+            .filter(entity -> entity.containsKey(CACHE))
+            .collect(Collectors.toList())
+            : List.of();
+    }
+
+    private boolean hasCacheableFinders() {
+        return projectModel.containsKey(ENTITIES) && projectModel.getJsonArray(ENTITIES)
+            .stream()
+            .map(JsonValue::asJsonObject)
+            .filter(entity -> isFieldsNotEmpty(entity, FINDERS))
+            .flatMap(entity -> entity.getJsonObject(FINDERS).values().stream())
+            .anyMatch(finder -> finder.asJsonObject().getBoolean(CACHEABLE, false));
+    }
+
+    /**
+     * Only the entities with {@code cache} in the model are stored in the shared cache.
+     */
+    private boolean addSharedCacheMode(Document persistenceXml, String persistenceName) throws
+        XPathExpressionException {
+        if (getCachedEntities().isEmpty()) {
+            return false;
+        }
+        var unitFilter = String.format("/persistence/persistence-unit[@name=\"%s\"]", persistenceName);
+        if (!DocumentXmlUtil.listElementsByFilter(persistenceXml, unitFilter + "/shared-cache-mode").isEmpty()) {
+            return false;
+        }
+        boolean added = false;
+        for (Element persistenceUnitElement : DocumentXmlUtil.listElementsByFilter(persistenceXml, unitFilter)) {
+            var nextElement = DocumentXmlUtil.listElementsByFilter(persistenceXml,
+                    unitFilter + "/*[self::validation-mode or self::properties]")
+                .stream()
+                .findFirst()
+                .orElse(null);
+            var sharedCacheModeElement = persistenceXml.createElement("shared-cache-mode");
+            sharedCacheModeElement.setTextContent("ENABLE_SELECTIVE");
+            persistenceUnitElement.insertBefore(sharedCacheModeElement, nextElement);
+            added = true;
+        }
+        return added;
+    }
+
+    /**
+     * Shared cache properties of each cached entity, for the JPA provider of the server. Hibernate has no cache of its
+     * own, so its cache is only enabled with the JCache provider of {@code datasource.cacheProvider}, through the
+     * {@code jcache} region factory.
+     */
+    private Map<String, String> getCacheProperties() {
+        Map<String, String> properties = new TreeMap<>();
+        var providers = getJpaProviders();
+        var hibernateCache = providers.contains(JpaProviderType.HIBERNATE) && isHibernateCacheEnabled(providers);
+        if (hibernateCache && hasCacheableFinders()) {
+            properties.put("hibernate.cache.use_query_cache", "true");
+        }
+        getCachedEntities().forEach(entity -> {
+            var entityName = entity.getString(NAME);
+            var cache = entity.getJsonObject(CACHE);
+            if (cache.containsKey(TTL)) {
+                getLog().warn("The cache ttl of " + entityName + " must be configured in the cache provider");
+            }
+            if (providers.contains(JpaProviderType.ECLIPSELINK)) {
+                properties.put("eclipselink.cache.shared." + entityName, "true");
+                if (cache.containsKey(SIZE)) {
+                    properties.put("eclipselink.cache.size." + entityName, String.valueOf(cache.getInt(SIZE)));
+                }
+            }
+            if (hibernateCache) {
+                properties.put("hibernate.classcache." + entityPackages.get(entityName) + ".model." + entityName,
+                    cache.getString(MODE, DEFAULT_CACHE_MODE) + (cache.containsKey(REGION)
+                        ? "," + cache.getString(REGION)
+                        : StringUtils.EMPTY));
+            }
+        });
+        if (hibernateCache && !properties.isEmpty()) {
+            properties.put("hibernate.cache.use_second_level_cache", "true");
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.provider", projectModel.getJsonObject(DATASOURCE)
+                .getString(CACHE_PROVIDER));
+        }
+        return properties;
+    }
+
+    /**
+     * Evaluates whether the Hibernate cache can be enabled, warning when the model uses the cache without a JCache
+     * provider, or with options that Hibernate ignores.
+     */
+    private boolean isHibernateCacheEnabled(Set<JpaProviderType> providers) {
+        var cached = !getCachedEntities().isEmpty() || hasCacheableFinders();
+        if (providers.size() == 1 && cached) {
+            projectModel.getJsonArray(ENTITIES)
+                .stream()
+                .map(JsonValue::asJsonObject)
+                .filter(entity -> isFieldsNotEmpty(entity, FINDERS))
+                .forEach(entity -> entity.getJsonObject(FINDERS).forEach((name, finder) -> {
+                    if (finder.asJsonObject().getBoolean(CACHEABLE, false) && finder.asJsonObject()
+                        .containsKey(TTL)) {
+                        getLog().warn("The ttl of the finder " + name + " of " + entity.getString(NAME)
+                            + " is ignored by Hibernate, it must be configured in the cache provider");
+                    }
+                }));
+        }
+        var datasource = projectModel.containsKey(DATASOURCE)
+            ? projectModel.getJsonObject(DATASOURCE)
+            : JsonValue.EMPTY_JSON_OBJECT;
+        if (isStringNotEmpty(datasource, CACHE_PROVIDER)) {
+            return true;
+        }
+        if (providers.size() == 1 && cached) {
+            getLog().warn("The Hibernate second-level cache is not enabled, set the JCache provider class in "
+                + "datasource.cacheProvider");
+        }
+        return false;
+    }
+
+    private Set<JpaProviderType> getJpaProviders() {
+        var datasource = projectModel.containsKey(DATASOURCE)
+            ? projectModel.getJsonObject(DATASOURCE)
+            : JsonValue.EMPTY_JSON_OBJECT;
+        if (datasource.containsKey(PROVIDER)) {
+            var provider = JpaProviderType.findByValue(datasource.getString(PROVIDER));
+            if (provider != null) {
+                return EnumSet.of(provider);
+            }
+            getLog().warn("JPA provider is invalid:" + datasource.getString(PROVIDER));
+        }
+        // Payara y Open Liberty usan EclipseLink
+        var styleType = DatasourceDefinitionStyleType.findByValue(datasource.getString(STYLE, null));
+        if (styleType == DatasourceDefinitionStyleType.PAYARA_RESOURCES
+            || styleType == DatasourceDefinitionStyleType.OPENLIBERTY || mavenProject.getModel()
+            .getProfiles()
+            .stream()
+            .anyMatch(profile -> PAYARA_MICRO_PROFILE.equals(profile.getId()) || OPENLIBERTY.equals(
+                profile.getId()))) {
+            return EnumSet.of(JpaProviderType.ECLIPSELINK);
+        }
+        return EnumSet.allOf(JpaProviderType.class);
+    }
+
+    /**
+     * The entities of the context modules are packaged in jar files, so they are listed in the persistence unit.
+     */
+    private void addPersistenceClasses(Document persistenceXml, String persistenceName) throws
+        XPathExpressionException {
+        var unitFilter = String.format("/persistence/persistence-unit[@name=\"%s\"]", persistenceName);
+        for (Element persistenceUnitElement : DocumentXmlUtil.listElementsByFilter(persistenceXml, unitFilter)) {
+            var currentClasses = DocumentXmlUtil.listElementsByFilter(persistenceXml, unitFilter + "/class")
+                .stream()
+                .map(Element::getTextContent)
+                .collect(Collectors.toSet());
+            var nextElement = DocumentXmlUtil.listElementsByFilter(persistenceXml,
+                    unitFilter + "/*[self::exclude-unlisted-classes or self::shared-cache-mode or "
+                        + "self::validation-mode or self::properties]")
+                .stream()
+                .findFirst()
+                .orElse(null);
+            new TreeMap<>(entityPackages).forEach((entityName, entityPackage) -> {
+                var className = entityPackage + ".model." + entityName;
+                if (!currentClasses.contains(className)) {
+                    var classElement = persistenceXml.createElement("class");
+                    classElement.setTextContent(className);
+                    persistenceUnitElement.insertBefore(classElement, nextElement);
+                }
+            });
+        }
+    }
+
     private void createWebXML() {
         try {
 
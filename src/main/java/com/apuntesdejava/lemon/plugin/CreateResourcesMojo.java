@@ -16,17 +16,23 @@
 package com.apuntesdejava.lemon.plugin;
 
 import com.apuntesdejava.lemon.plugin.util.Constants;
+import com.apuntesdejava.lemon.plugin.util.GeneratedSourcesUtil;
 import com.apuntesdejava.lemon.plugin.util.OpenApiModelUtil;
+import com.apuntesdejava.lemon.plugin.util.SourceFileUtil;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonValue;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -36,13 +42,16 @@ import java.util.List;
 import java.util.Map;
 
 import static com.apuntesdejava.lemon.plugin.util.Constants.*;
-import static com.apuntesdejava.lemon.plugin.util.OpenApiModelUtil.getJavaType;
+import static com.apuntesdejava.lemon.plugin.util.OpenApiModelUtil.getParameterType;
 import static java.util.stream.Collectors.joining;
 
 /**
  * @author Diego Silva mailto:diego.silva@apuntesdejava.com
  */
-@Mojo(name = "create-rest")
+@Mojo(
+    name = "create-rest",
+    defaultPhase = LifecyclePhase.GENERATE_SOURCES
+)
 public class CreateResourcesMojo extends AbstractMojo {
 
     private final Map<String, String> componentsMap = new LinkedHashMap<>();
@@ -56,7 +65,36 @@ public class CreateResourcesMojo extends AbstractMojo {
         readonly = true
     )
     private MavenProject mavenProject;
+    @Parameter(
+        defaultValue = "${plugin}",
+        readonly = true
+    )
+    private PluginDescriptor pluginDescriptor;
+    /**
+     * If {@code true}, the classes are generated in {@link #outputDirectory}, registered as compile source root, instead
+     * of {@code src/main/java}.
+     */
+    @Parameter(
+        property = "lemon.generateSources",
+        defaultValue = "false"
+    )
+    private boolean generateSources;
+    @Parameter(
+        property = "lemon.outputDirectory",
+        defaultValue = "${project.build.directory}/generated-sources/lemon"
+    )
+    private File outputDirectory;
+    /**
+     * If {@code true}, the files are written in UTF-8 with {@code \n} line separators and sorted imports, so identical
+     * inputs give identical bytes on any platform.
+     */
+    @Parameter(
+        property = "lemon.reproducible",
+        defaultValue = "false"
+    )
+    private boolean reproducible;
     private String packageName;
+    private Path javaMainSrc;
     private JsonObject openApiModel;
 
     /**
@@ -70,12 +108,32 @@ public class CreateResourcesMojo extends AbstractMojo {
         try {
             Path path = mavenProject.getBasedir().toPath().resolve(modelProjectFile);
             getLog().debug("modelProjectFile:" + path);
-            this.openApiModel = OpenApiModelUtil.getInstance().getModel(path);
-            getLog().debug("openApiModel:" + openApiModel);
             this.packageName = StringUtils.replaceChars(mavenProject.getGroupId() + '.' + mavenProject.getArtifactId(),
                 '-', '.');
+            Path stampFile = Path.of(mavenProject.getBuild().getDirectory(), "lemon", "create-rest.stamp");
+            String stampKey = pluginDescriptor.getVersion() + ':' + packageName + ':' + reproducible + ':'
+                + outputDirectory.getAbsolutePath();
+            if (generateSources) {
+                this.javaMainSrc = outputDirectory.toPath();
+                mavenProject.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+                Path resourcesOutputPath = javaMainSrc.resolve(packageName.replace('.', File.separatorChar)).resolve(
+                    RESOURCES);
+                if (GeneratedSourcesUtil.isUpToDate(getLog(), stampFile, stampKey, List.of(path),
+                    List.of(resourcesOutputPath))) {
+                    getLog().info("Generated REST sources are up to date");
+                    return;
+                }
+            } else {
+                this.javaMainSrc = mavenProject.getBasedir().toPath().resolve(SRC_PATH).resolve(MAIN_PATH).resolve(
+                    JAVA_PATH);
+            }
+            this.openApiModel = OpenApiModelUtil.getInstance().getModel(path);
+            getLog().debug("openApiModel:" + openApiModel);
             createComponents();
             createResources();
+            if (generateSources) {
+                GeneratedSourcesUtil.saveStamp(getLog(), stampFile, stampKey, List.of(path));
+            }
         } catch (IOException ex) {
             getLog().error(ex.getMessage(), ex);
         }
@@ -90,8 +148,8 @@ public class CreateResourcesMojo extends AbstractMojo {
 
             if (OBJECT.equals(type)) {
                 String className = OpenApiModelUtil.getInstance()
-                    .createClass(getLog(), packageName, mavenProject, schemaName, item.asJsonObject()
-                        .getJsonObject(PROPERTIES));
+                    .createClass(getLog(), packageName, javaMainSrc, schemaName, item.asJsonObject()
+                        .getJsonObject(PROPERTIES), reproducible);
                 componentsMap.put(schemaName, className);
             }
 
@@ -120,8 +178,6 @@ public class CreateResourcesMojo extends AbstractMojo {
             }
             String rootPath = aPath.substring(0, pos);
             getLog().debug("Root path:" + rootPath);
-            Path baseDirPath = mavenProject.getBasedir().toPath();
-            Path javaMainSrc = baseDirPath.resolve(SRC_PATH).resolve(MAIN_PATH).resolve(JAVA_PATH);
             String groupId = packageName; // mavenProject.getGroupId();
             String[] packagePaths = groupId.split("\\.");
             Path packageBasePath = javaMainSrc;
@@ -130,6 +186,10 @@ public class CreateResourcesMojo extends AbstractMojo {
 
             }
             final Path packageBaseResources = packageBasePath.resolve(RESOURCES);
+            if (generateSources) {
+                //los recursos se completan sobre el archivo existente, así que se regeneran desde cero
+                FileUtils.deleteDirectory(packageBaseResources.toFile());
+            }
             Files.createDirectories(packageBaseResources);
 
             openApiModel.getJsonObject(PATHS)
@@ -208,7 +268,7 @@ public class CreateResourcesMojo extends AbstractMojo {
 
             lines.add("}");
 
-            Files.write(classPath, lines);
+            SourceFileUtil.write(classPath, lines, reproducible);
         } catch (IOException ex) {
             getLog().error(ex.getMessage(), ex);
         }
@@ -263,8 +323,11 @@ public class CreateResourcesMojo extends AbstractMojo {
                 StringBuilder result = new StringBuilder();
                 if (PATH.equals(param.getString(IN))) {
                     result.append("@PathParam(\"").append(param.getString(NAME)).append("\") ");
+                } else if (QUERY.equals(param.getString(IN))) {
+                    // un arreglo se recibe repitiendo el parámetro: ?ids=1&ids=2
+                    result.append("@QueryParam(\"").append(param.getString(NAME)).append("\") ");
                 }
-                result.append(getJavaType(param.getJsonObject(SCHEMA).getString(TYPE)))
+                result.append(getParameterType(param.getJsonObject(SCHEMA)))
                     .append(' ')
                     .append(param.getString(NAME));
                 return result.toString();
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin;
+
+import com.apuntesdejava.lemon.plugin.util.CompilerUtil;
+import com.apuntesdejava.lemon.plugin.util.ProjectModelUtil;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.apuntesdejava.lemon.plugin.util.Constants.*;
+
+/**
+ * Plugin that compiles the classes generated from the {@code model.json} file in the same JVM, without writing class
+ * files, and reports the errors with the entity and finder that produced them.
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+@Mojo(
+    name = "verify",
+    defaultPhase = LifecyclePhase.PROCESS_SOURCES,
+    requiresDependencyResolution = ResolutionScope.COMPILE
+)
+public class VerifyModelMojo extends AbstractMojo {
+
+    private static final Pattern FINDER_PATTERN = Pattern.compile("(?:find|stream|count|exists|update|delete)By(\\w+)");
+    private static final String[] CLASS_SUFFIXES = {"Repository", "Service", "Resource"};
+
+    @Parameter(
+        property = "model",
+        defaultValue = "model.json"
+    )
+    private String modelProjectFile;
+    @Parameter(
+        defaultValue = "${project}",
+        readonly = true
+    )
+    private MavenProject mavenProject;
+    @Parameter(
+        property = "lemon.generateSources",
+        defaultValue = "false"
+    )
+    private boolean generateSources;
+    @Parameter(
+        property = "lemon.outputDirectory",
+        defaultValue = "${project.build.directory}/generated-sources/lemon"
+    )
+    private File outputDirectory;
+    @Parameter(
+        property = "lemon.splitContexts",
+        defaultValue = "false"
+    )
+    private boolean splitContexts;
+    @Parameter(
+        property = "lemon.verify.failOnError",
+        defaultValue = "true"
+    )
+    private boolean failOnError;
+
+    /**
+     * Main method that runs the Plugin
+     *
+     * @throws MojoExecutionException if Mojo Execution Exception
+     * @throws MojoFailureException   if Mojo Failure Exception
+     */
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        Path modelPath = mavenProject.getBasedir().toPath().resolve(modelProjectFile);
+        Optional<JsonObject> projectModel = ProjectModelUtil.getProjectModel(getLog(), modelPath.toString());
+        if (projectModel.isEmpty()) {
+            return;
+        }
+        Map<String, JsonObject> entities = projectModel.get()
+            .getJsonArray(ENTITIES)
+            .stream()
+            .map(JsonValue::asJsonObject)
+            .collect(Collectors.toMap(entity -> entity.getString(NAME), Function.identity()));
+        String packageName = StringUtils.replaceChars(mavenProject.getGroupId() + '.' + mavenProject.getArtifactId(),
+            '-', '.');
+        Path javaMainSrc = generateSources
+            ? outputDirectory.toPath()
+            : mavenProject.getBasedir().toPath().resolve(SRC_PATH).resolve(MAIN_PATH).resolve(JAVA_PATH);
+        String packagePath = packageName.replace('.', File.separatorChar);
+        try {
+            List<Path> packageBasePaths = new ArrayList<>();
+            packageBasePaths.add(javaMainSrc.resolve(packagePath));
+            Path contextsPath = mavenProject.getBasedir().toPath().resolve(CONTEXTS);
+            if (splitContexts && Files.isDirectory(contextsPath)) {
+                // cada contexto es un módulo con sus propias fuentes
+                try (Stream<Path> modules = Files.list(contextsPath)) {
+                    modules.map(module -> module.resolve(SRC_PATH).resolve(MAIN_PATH).resolve(JAVA_PATH)
+                        .resolve(packagePath)).sorted().forEach(packageBasePaths::add);
+                }
+            }
+            List<Path> sources = new ArrayList<>();
+            for (Path packageBasePath : packageBasePaths) {
+                if (Files.isDirectory(packageBasePath)) {
+                    try (Stream<Path> files = Files.walk(packageBasePath)) {
+                        files.filter(file -> file.toString().endsWith(".java")).sorted().forEach(sources::add);
+                    }
+                }
+            }
+            if (sources.isEmpty()) {
+                getLog().warn("Generated classes not found in " + packageBasePaths);
+                return;
+            }
+            getLog().info("Verifying " + sources.size() + " generated classes");
+            var diagnostics = CompilerUtil.compile(sources, mavenProject.getCompileClasspathElements(),
+                mavenProject.getProperties().getProperty("maven.compiler.release"))
+                .orElseThrow(() -> new MojoExecutionException("Java compiler not available, a JDK is required"));
+            long errors = diagnostics.stream().filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .peek(diagnostic -> getLog().error(describe(diagnostic, entities)))
+                .count();
+            if (errors > 0 && failOnError) {
+                throw new MojoFailureException(errors + " errors found in the generated classes");
+            }
+            if (errors == 0) {
+                getLog().info("Generated classes compile successfully");
+            }
+        } catch (IOException | DependencyResolutionRequiredException ex) {
+            throw new MojoExecutionException(ex.getMessage(), ex);
+        }
+    }
+
+    private String describe(Diagnostic<? extends JavaFileObject> diagnostic, Map<String, JsonObject> entities) {
+        StringBuilder message = new StringBuilder();
+        if (diagnostic.getSource() != null) {
+            String className = StringUtils.substringBefore(
+                StringUtils.substringAfterLast(diagnostic.getSource().getName(), File.separator), ".");
+            String entityName = StringUtils.removeEnd(className,
+                Stream.of(CLASS_SUFFIXES).filter(className::endsWith).findFirst().orElse(StringUtils.EMPTY));
+            var entity = entities.get(entityName);
+            if (entity != null) {
+                message.append("[entity ").append(entityName);
+                findFinder(diagnostic, entity).ifPresent(finder -> message.append(", finder ").append(finder));
+                message.append("] ");
+            }
+            message.append(diagnostic.getSource().getName()).append(':').append(diagnostic.getLineNumber())
+                .append(' ');
+        }
+        return message.append(diagnostic.getMessage(null)).toString();
+    }
+
+    private Optional<String> findFinder(Diagnostic<? extends JavaFileObject> diagnostic, JsonObject entity) {
+        if (!entity.containsKey(FINDERS) || diagnostic.getLineNumber() == Diagnostic.NOPOS) {
+            return Optional.empty();
+        }
+        try {
+            String[] lines = diagnostic.getSource().getCharContent(true).toString().split("\n");
+            for (int i = (int) Math.min(diagnostic.getLineNumber(), lines.length) - 1; i >= 0; i--) {
+                String line = lines[i];
+                Matcher matcher = FINDER_PATTERN.matcher(line);
+                if (matcher.find() && entity.getJsonObject(FINDERS).containsKey(matcher.group(1))) {
+                    return Optional.of(matcher.group(1));
+                }
+                if (line.startsWith("public class") || StringUtils.equals(line.trim(), "}")) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            getLog().debug(ex.getMessage());
+        }
+        return Optional.empty();
+    }
+}
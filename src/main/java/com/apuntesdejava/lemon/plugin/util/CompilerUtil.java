@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin.util;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for compiling Java sources in the same JVM. The class files are kept in memory and discarded, so it
+ * only checks that the sources compile.
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+public class CompilerUtil {
+
+    private CompilerUtil() {
+
+    }
+
+    /**
+     * Compiles the sources with the given classpath, without writing class files. The annotation processors of the
+     * classpath, such as Lombok, are run, since the generated classes depend on them.
+     *
+     * @param sources   Java source files
+     * @param classpath Classpath elements
+     * @param release   Java release of the compilation, or {@code null} to use the one of the running JVM
+     * @return Diagnostics of the compilation, or {@link Optional#empty()} if there is no Java compiler available (for
+     * example, running on a JRE)
+     * @throws IOException IO Exception
+     */
+    public static Optional<List<Diagnostic<? extends JavaFileObject>>> compile(Collection<Path> sources,
+                                                                              Collection<String> classpath,
+                                                                              String release) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return Optional.empty();
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null,
+            StandardCharsets.UTF_8); var fileManager = new InMemoryFileManager(standardFileManager)) {
+            List<String> options = new ArrayList<>(List.of("-implicit:none", "-Xlint:none"));
+            if (!classpath.isEmpty()) {
+                options.add("-classpath");
+                options.add(String.join(File.pathSeparator, classpath));
+                options.add("-processorpath");
+                options.add(String.join(File.pathSeparator, classpath));
+            }
+            if (release != null && !release.isBlank()) {
+                options.add("--release");
+                options.add(release);
+            }
+            var compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(
+                sources.stream().map(Path::toFile).collect(Collectors.toList()));
+            compiler.getTask(null, fileManager, diagnostics, options, null, compilationUnits).call();
+        }
+        return Optional.of(diagnostics.getDiagnostics());
+    }
+
+    private static class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private InMemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            return new InMemoryClassFile(className, kind);
+        }
+    }
+
+    /**
+     * Output file kept in memory. The sources written by the annotation processors are read back by the compiler.
+     */
+    private static class InMemoryClassFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        private InMemoryClassFile(String className, Kind kind) {
+            super(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            content.reset();
+            return content;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(content.toByteArray());
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -175,6 +175,10 @@ public class Constants {
      */
 
     public static final String ENTITIES = "entities";
+    /**
+     * Value {@code $include}
+     */
+    public static final String INCLUDE = "$include";
     /**
      * Value {@code name}
      */
@@ -186,6 +190,22 @@ public class Constants {
     public static final String MAX = "max";
     public static final String SIZE = "size";
     public static final String OPTIONS = "options";
+    /**
+     * Value {@code context}
+     */
+    public static final String CONTEXT = "context";
+    /**
+     * Value {@code contexts}
+     */
+    public static final String CONTEXTS = "contexts";
+    /**
+     * Value {@code core}
+     */
+    public static final String DEFAULT_CONTEXT = "core";
+    /**
+     * Value {@code base}
+     */
+    public static final String BASE_MODULE = "base";
     /**
      * Value {@code tableName}
      */
@@ -246,6 +266,166 @@ public class Constants {
      * Value {@code unique}
      */
     public static final String UNIQUE = "unique";
+    /**
+     * Value {@code sortColumns}
+     */
+    public static final String SORT_COLUMNS = "sortColumns";
+    /**
+     * Value {@code stream}
+     */
+    public static final String STREAM = "stream";
+    /**
+     * Value {@code fetchSize}
+     */
+    public static final String FETCH_SIZE = "fetchSize";
+    /**
+     * Value {@code batchSize}
+     */
+    public static final String BATCH_SIZE = "batchSize";
+    /**
+     * Value {@code 50}
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    /**
+     * Value {@code cache}
+     */
+    public static final String CACHE = "cache";
+    /**
+     * Value {@code mode}
+     */
+    public static final String MODE = "mode";
+    /**
+     * Value {@code region}
+     */
+    public static final String REGION = "region";
+    /**
+     * Value {@code ttl}
+     */
+    public static final String TTL = "ttl";
+    /**
+     * Value {@code projection}
+     */
+    public static final String PROJECTION = "projection";
+    /**
+     * Value {@code dto}
+     */
+    public static final String DTO = "dto";
+    /**
+     * Value {@code fetchPlans}
+     */
+    public static final String FETCH_PLANS = "fetchPlans";
+    /**
+     * Value {@code fetch}
+     */
+    public static final String FETCH = "fetch";
+    /**
+     * Value {@code eager}
+     */
+    public static final String EAGER = "eager";
+    /**
+     * Value {@code generator}
+     */
+    public static final String GENERATOR = "generator";
+    /**
+     * Value {@code sequenceName}
+     */
+    public static final String SEQUENCE_NAME = "sequenceName";
+    /**
+     * Value {@code table}
+     */
+    public static final String TABLE = "table";
+    /**
+     * Value {@code pkColumnValue}
+     */
+    public static final String PK_COLUMN_VALUE = "pkColumnValue";
+    /**
+     * Value {@code allocationSize}
+     */
+    public static final String ALLOCATION_SIZE = "allocationSize";
+    /**
+     * Value {@code initialValue}
+     */
+    public static final String INITIAL_VALUE = "initialValue";
+    /**
+     * Value {@code indexes}
+     */
+    public static final String INDEXES = "indexes";
+    /**
+     * Value {@code excludeIndexes}
+     */
+    public static final String EXCLUDE_INDEXES = "excludeIndexes";
+    /**
+     * Value {@code autoIndexes}
+     */
+    public static final String AUTO_INDEXES = "autoIndexes";
+    /**
+     * Value {@code columns}
+     */
+    public static final String COLUMNS = "columns";
+    /**
+     * Value {@code versioned}
+     */
+    public static final String VERSIONED = "versioned";
+    /**
+     * Value {@code timeoutMs}
+     */
+    public static final String TIMEOUT_MS = "timeoutMs";
+    /**
+     * Value {@code readOnly}
+     */
+    public static final String READ_ONLY = "readOnly";
+    /**
+     * Value {@code flushMode}
+     */
+    public static final String FLUSH_MODE = "flushMode";
+    /**
+     * Value {@code lob}
+     */
+    public static final String LOB = "lob";
+    /**
+     * Value {@code lazy}
+     */
+    public static final String LAZY = "lazy";
+    /**
+     * Value {@code enhancement}
+     */
+    public static final String ENHANCEMENT = "enhancement";
+    /**
+     * Value {@code lombokData}
+     */
+    public static final String LOMBOK_DATA = "lombokData";
+    /**
+     * Value {@code inListSize}
+     */
+    public static final String IN_LIST_SIZE = "inListSize";
+    /**
+     * Value {@code kind}
+     */
+    public static final String KIND = "kind";
+    /**
+     * Value {@code update}
+     */
+    public static final String UPDATE = "update";
+    /**
+     * Value {@code evict}
+     */
+    public static final String EVICT = "evict";
+    /**
+     * Value {@code cacheable}
+     */
+    public static final String CACHEABLE = "cacheable";
+    /**
+     * Value {@code read-write}
+     */
+    public static final String DEFAULT_CACHE_MODE = "read-write";
+    /**
+     * Value {@code provider}
+     */
+    public static final String PROVIDER = "provider";
+    /**
+     * Value {@code cacheProvider}
+     */
+    public static final String CACHE_PROVIDER = "cacheProvider";
     /**
      * Value {@code jakarta.faces.webapp.FacesServlet}
      */
@@ -357,6 +537,10 @@ public class Constants {
      * Value {@code array}
      */
     public static final String ARRAY = "array";
+    /**
+     * Value {@code format}
+     */
+    public static final String FORMAT = "format";
     /**
      * Value {@code $ref}
      */
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin.util;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static com.apuntesdejava.lemon.plugin.util.Constants.*;
+
+/**
+ * Utility class for generating each context of the model as a separate Maven module. The entities are grouped by the
+ * {@code context} key, and the dependencies between modules are inferred from the {@code join} fields.
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+public class ContextModulesUtil {
+
+    private static final String JAKARTAEE_GROUP_ID = "jakarta.platform";
+    private static final String JAKARTAEE_ARTIFACT_ID = "jakarta.jakartaee-api";
+    private static final String LOMBOK_GROUP_ID = "org.projectlombok";
+    private static final String LOMBOK_ARTIFACT_ID = "lombok";
+    private static final String PROVIDED = "provided";
+    private static final String POM_FILE = "pom.xml";
+    private static final String REACTOR_FILE = "reactor.xml";
+
+    private ContextModulesUtil() {
+
+    }
+
+    /**
+     * Gets the context name of an entity, valid as package name and module directory.
+     *
+     * @param entity Entity
+     * @return Context name, {@code core} if the entity does not declare one
+     */
+    public static String getContextName(JsonObject entity) {
+        return StringUtils.lowerCase(entity.getString(CONTEXT, DEFAULT_CONTEXT)).replaceAll("[^a-z0-9_]", "_");
+    }
+
+    /**
+     * Groups the entities by their context, sorted by context name.
+     *
+     * @param entities Entities of the model
+     * @return Entities by context
+     */
+    public static Map<String, List<JsonObject>> groupByContext(JsonArray entities) {
+        Map<String, List<JsonObject>> contexts = new TreeMap<>();
+        entities.stream()
+            .map(JsonValue::asJsonObject)
+            .forEach(entity -> contexts.computeIfAbsent(getContextName(entity), key -> new ArrayList<>()).add(entity));
+        return contexts;
+    }
+
+    /**
+     * Infers the dependencies between contexts, from the {@code join} fields whose type is an entity of another
+     * context.
+     *
+     * @param contexts Entities by context
+     * @return Contexts required by each context
+     */
+    public static Map<String, Set<String>> getContextDependencies(Map<String, List<JsonObject>> contexts) {
+        Map<String, String> entityContexts = new TreeMap<>();
+        contexts.forEach((context, entities) -> entities.forEach(
+            entity -> entityContexts.put(entity.getString(NAME), context)));
+        Map<String, Set<String>> dependencies = new TreeMap<>();
+        contexts.forEach((context, entities) -> {
+            Set<String> required = new TreeSet<>();
+            entities.stream()
+                .filter(entity -> entity.containsKey(FIELDS))
+                .flatMap(entity -> entity.getJsonObject(FIELDS).values().stream())
+                .map(JsonValue::asJsonObject)
+                .filter(field -> JsonValuesUtil.isStringNotEmpty(field, JOIN))
+                .forEach(field -> entityContexts.forEach((entityName, entityContext) -> {
+                    if (!entityContext.equals(context) && Pattern.compile("\\b" + entityName + "\\b")
+                        .matcher(field.getString(TYPE))
+                        .find()) {
+                        required.add(entityContext);
+                    }
+                }));
+            dependencies.put(context, required);
+        });
+        return dependencies;
+    }
+
+    /**
+     * Finds a cycle between contexts, which Maven cannot build as modules.
+     *
+     * @param dependencies Contexts required by each context
+     * @return Contexts of the cycle, or {@link Optional#empty()} if there is none
+     */
+    public static Optional<List<String>> findCycle(Map<String, Set<String>> dependencies) {
+        Set<String> visited = new TreeSet<>();
+        for (String context : dependencies.keySet()) {
+            var cycle = findCycle(dependencies, context, new LinkedHashSet<>(), visited);
+            if (cycle.isPresent()) {
+                return cycle;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<List<String>> findCycle(Map<String, Set<String>> dependencies, String context,
+                                                    LinkedHashSet<String> path, Set<String> visited) {
+        if (path.contains(context)) {
+            List<String> cycle = new ArrayList<>(path);
+            cycle = cycle.subList(cycle.indexOf(context), cycle.size());
+            cycle.add(context);
+            return Optional.of(cycle);
+        }
+        if (!visited.add(context)) {
+            return Optional.empty();
+        }
+        path.add(context);
+        for (String required : dependencies.getOrDefault(context, Set.of())) {
+            var cycle = findCycle(dependencies, required, path, visited);
+            if (cycle.isPresent()) {
+                return cycle;
+            }
+        }
+        path.remove(context);
+        return Optional.empty();
+    }
+
+    /**
+     * Creates the pom.xml of a context module. The Jakarta EE and Lombok dependencies are taken from the project, and
+     * the required modules are added with the project version.
+     *
+     * @param log             Maven log
+     * @param mavenProject    Maven project
+     * @param moduleDir       Module directory
+     * @param artifactId      Artifact ID of the module
+     * @param requiredModules Artifact IDs of the modules required by this one
+     * @throws IOException IO Exception
+     */
+    public static void createModule(Log log, MavenProject mavenProject, Path moduleDir, String artifactId,
+                                    Collection<String> requiredModules) throws IOException {
+        Model model = newModel(mavenProject, artifactId, "jar");
+        mavenProject.getProperties()
+            .stringPropertyNames()
+            .stream()
+            .filter(name -> name.startsWith("maven.compiler.") || name.equals("project.build.sourceEncoding"))
+            .sorted()
+            .forEach(name -> model.addProperty(name, mavenProject.getProperties().getProperty(name)));
+        List<Dependency> dependencies = new ArrayList<>();
+        mavenProject.getDependencies()
+            .stream()
+            .filter(dependency -> (JAKARTAEE_GROUP_ID.equals(dependency.getGroupId()) && JAKARTAEE_ARTIFACT_ID.equals(
+                dependency.getArtifactId())) || (LOMBOK_GROUP_ID.equals(dependency.getGroupId())
+                && LOMBOK_ARTIFACT_ID.equals(dependency.getArtifactId())))
+            .map(Dependency::clone)
+            .forEach(dependency -> {
+                dependency.setScope(PROVIDED);
+                dependencies.add(dependency);
+            });
+        addProvidedDependency(log, dependencies, JAKARTAEE_GROUP_ID, JAKARTAEE_ARTIFACT_ID);
+        addProvidedDependency(log, dependencies, LOMBOK_GROUP_ID, LOMBOK_ARTIFACT_ID);
+        requiredModules.forEach(module -> dependencies.add(newModuleDependency(mavenProject, module)));
+        model.setDependencies(dependencies);
+        saveModel(moduleDir.resolve(POM_FILE), model);
+    }
+
+    private static void addProvidedDependency(Log log, List<Dependency> dependencies, String groupId,
+                                              String artifactId) {
+        if (dependencies.stream().noneMatch(
+            dependency -> groupId.equals(dependency.getGroupId()) && artifactId.equals(dependency.getArtifactId()))) {
+            ProjectModelUtil.addDependency(log, dependencies, groupId, artifactId, Map.of(SCOPE, PROVIDED));
+        }
+    }
+
+    /**
+     * Creates the aggregator pom.xml of the context modules.
+     *
+     * @param mavenProject Maven project
+     * @param dir          Aggregator directory
+     * @param modules      Module directories, relative to the aggregator directory
+     * @throws IOException IO Exception
+     */
+    public static void createAggregator(MavenProject mavenProject, Path dir, Collection<String> modules) throws
+        IOException {
+        Model model = newModel(mavenProject, mavenProject.getArtifactId() + "-" + CONTEXTS, "pom");
+        modules.forEach(model::addModule);
+        saveModel(dir.resolve(POM_FILE), model);
+    }
+
+    /**
+     * Creates the reactor file of the project, which builds the context modules and then the project itself. The
+     * project pom.xml cannot aggregate the modules because it is the application module.
+     *
+     * @param mavenProject Maven project
+     * @param contextsDir  Aggregator directory of the context modules, relative to the project directory
+     * @return Reactor file
+     * @throws IOException IO Exception
+     */
+    public static Path createReactor(MavenProject mavenProject, String contextsDir) throws IOException {
+        Model model = newModel(mavenProject, mavenProject.getArtifactId() + "-reactor", "pom");
+        model.addModule(contextsDir);
+        model.addModule(POM_FILE);
+        Path reactorFile = mavenProject.getBasedir().toPath().resolve(REACTOR_FILE);
+        saveModel(reactorFile, model);
+        return reactorFile;
+    }
+
+    /**
+     * Creates the dependency to a context module, with the project version.
+     *
+     * @param mavenProject Maven project
+     * @param artifactId   Artifact ID of the module
+     * @return Dependency
+     */
+    public static Dependency newModuleDependency(MavenProject mavenProject, String artifactId) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(mavenProject.getGroupId());
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(mavenProject.getVersion());
+        return dependency;
+    }
+
+    private static Model newModel(MavenProject mavenProject, String artifactId, String packaging) {
+        Model model = new Model();
+        model.setModelVersion("4.0.0");
+        model.setGroupId(mavenProject.getGroupId());
+        model.setArtifactId(artifactId);
+        model.setVersion(mavenProject.getVersion());
+        model.setPackaging(packaging);
+        return model;
+    }
+
+    private static void saveModel(Path file, Model model) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new MavenXpp3Writer().write(writer, model);
+        }
+    }
+}
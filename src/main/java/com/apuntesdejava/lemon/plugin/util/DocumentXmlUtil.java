@@ -25,6 +25,8 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
@@ -35,6 +37,10 @@ import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.logging.Logger;
@@ -189,22 +195,46 @@ public class DocumentXmlUtil {
     public static void saveDocument(Path path, Document document, Map<String, String> outputProperties) {
         try (var fos = new FileOutputStream(path.toFile()); var xlsIs = DocumentXmlUtil.class.getResourceAsStream(
             STRIP_XSL_FILE_NAME)) {
-            Source xslt = new StreamSource(xlsIs);
-            var transformerFactory = TransformerFactory.newInstance();
-            var transformer = transformerFactory.newTransformer(xslt);
-            transformer.setOutputProperty(OutputKeys.INDENT, YES);
-            transformer.setOutputProperty(OutputKeys.STANDALONE, NO);
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, NO);
-            outputProperties.forEach(transformer::setOutputProperty);
-            document.setXmlStandalone(true);
             var source = new DOMSource(document);
             var result = new StreamResult(fos);
-            transformer.transform(source, result);
+            newTransformer(xlsIs, document, outputProperties).transform(source, result);
         } catch (IOException | TransformerException e) {
             LOGGER.severe(e.getMessage());
         }
     }
 
+    /**
+     * Saves an XML document object at the specified path in reproducible mode: UTF-8 and {@code \n} line separators.
+     * The attributes are already serialized in canonical (name) order by the DOM implementation.
+     *
+     * @param path     Path where the xml document will be saved
+     * @param document XML document to save
+     */
+    public static void saveReproducibleDocument(Path path, Document document) {
+        try (var xlsIs = DocumentXmlUtil.class.getResourceAsStream(STRIP_XSL_FILE_NAME)) {
+            var writer = new StringWriter();
+            newTransformer(xlsIs, document, Map.of(OutputKeys.ENCODING, StandardCharsets.UTF_8.name())).transform(
+                new DOMSource(document), new StreamResult(writer));
+            Files.writeString(path, StringUtils.replace(writer.toString(), "\r\n", "\n"), StandardCharsets.UTF_8);
+        } catch (IOException | TransformerException e) {
+            LOGGER.severe(e.getMessage());
+        }
+    }
+
+    private static Transformer newTransformer(InputStream xlsIs, Document document,
+                                              Map<String, String> outputProperties) throws
+        TransformerConfigurationException {
+        Source xslt = new StreamSource(xlsIs);
+        var transformerFactory = TransformerFactory.newInstance();
+        var transformer = transformerFactory.newTransformer(xslt);
+        transformer.setOutputProperty(OutputKeys.INDENT, YES);
+        transformer.setOutputProperty(OutputKeys.STANDALONE, NO);
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, NO);
+        outputProperties.forEach(transformer::setOutputProperty);
+        document.setXmlStandalone(true);
+        return transformer;
+    }
+
     /**
      * Constructor class that helps create elements with attributes and children
      */
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin.util;
+
+import org.apache.maven.plugin.logging.Log;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPathExpressionException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.apuntesdejava.lemon.plugin.util.Constants.*;
+
+/**
+ * Utility class for configuring the build-time bytecode enhancement of the entities in a pom.xml: the Hibernate
+ * enhance plugin, or the static weaving of EclipseLink. The pom.xml is edited as an XML document, so its comments and
+ * the elements not known by the plugin are kept, and it is only saved when something is added.
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+public class EnhancementUtil {
+
+    private static final String HIBERNATE_ENHANCE_GROUP_ID = "org.hibernate.orm.tooling";
+    private static final String HIBERNATE_ENHANCE_ARTIFACT_ID = "hibernate-enhance-maven-plugin";
+    private static final String HIBERNATE_ENHANCE_VERSION = "6.2.7.Final";
+    private static final String ENHANCE_GOAL = "enhance";
+    private static final String ECLIPSELINK_WEAVE_GROUP_ID = "com.ethlo.persistence.tools";
+    private static final String ECLIPSELINK_WEAVE_ARTIFACT_ID = "eclipselink-maven-plugin";
+    private static final String ECLIPSELINK_WEAVE_VERSION = "3.0.2";
+    private static final String WEAVE_GOAL = "weave";
+    private static final String PROCESS_CLASSES_PHASE = "process-classes";
+
+    private EnhancementUtil() {
+
+    }
+
+    /**
+     * Adds the Hibernate enhance plugin to the build, with the given options. The options already configured in the
+     * pom.xml are kept.
+     *
+     * @param log     Maven log
+     * @param pomFile pom.xml of the project or module with the entities
+     * @param options Configuration options, such as {@code enableLazyInitialization}
+     */
+    public static void addHibernateEnhancePlugin(Log log, Path pomFile, Map<String, String> options) {
+        log.debug("Add Hibernate Enhance Plugin to " + pomFile);
+        addPlugin(log, pomFile, HIBERNATE_ENHANCE_GROUP_ID, HIBERNATE_ENHANCE_ARTIFACT_ID, HIBERNATE_ENHANCE_VERSION,
+            ENHANCE_GOAL, null, options);
+    }
+
+    /**
+     * Adds the EclipseLink static weaving plugin to the build. The entities are woven after they are compiled, so the
+     * persistence unit must set {@code eclipselink.weaving} to {@code static}.
+     *
+     * @param log     Maven log
+     * @param pomFile pom.xml of the project or module with the entities
+     */
+    public static void addEclipseLinkWeavePlugin(Log log, Path pomFile) {
+        log.debug("Add EclipseLink Weave Plugin to " + pomFile);
+        addPlugin(log, pomFile, ECLIPSELINK_WEAVE_GROUP_ID, ECLIPSELINK_WEAVE_ARTIFACT_ID, ECLIPSELINK_WEAVE_VERSION,
+            WEAVE_GOAL, PROCESS_CLASSES_PHASE, Map.of());
+    }
+
+    private static void addPlugin(Log log, Path pomFile, String groupId, String artifactId, String version,
+                                  String goal, String phase, Map<String, String> options) {
+        Optional<Document> pomXml = DocumentXmlUtil.openDocument(pomFile);
+        if (pomXml.isEmpty()) {
+            log.error("Unable to read " + pomFile);
+            return;
+        }
+        var document = pomXml.get();
+        try {
+            boolean changed = false;
+            var plugins = DocumentXmlUtil.listElementsByFilter(document, String.format(
+                "/project/build/plugins/plugin[groupId=\"%s\" and artifactId=\"%s\"]", groupId, artifactId));
+            Element plugin;
+            if (plugins.isEmpty()) {
+                var build = getChild(document, document.getDocumentElement(), "build");
+                plugin = DocumentXmlUtil.createElement(document, getChild(document, build, "plugins"), PLUGIN)
+                    .orElseThrow();
+                DocumentXmlUtil.createElement(document, plugin, DEPENDENCY_GROUP_ID, groupId);
+                DocumentXmlUtil.createElement(document, plugin, DEPENDENCY_ARTIFACT_ID, artifactId);
+                DocumentXmlUtil.createElement(document, plugin, DEPENDENCY_VERSION, version);
+                changed = true;
+            } else {
+                plugin = plugins.get(0);
+            }
+            if (DocumentXmlUtil.listElementsByFilter(document, String.format(
+                "/project/build/plugins/plugin[groupId=\"%s\" and artifactId=\"%s\"]/executions/execution"
+                    + "[goals/goal=\"%s\"]", groupId, artifactId, goal)).isEmpty()) {
+                var execution = DocumentXmlUtil.createElement(document, getChild(document, plugin, "executions"),
+                    "execution").orElseThrow();
+                if (phase != null) {
+                    DocumentXmlUtil.createElement(document, execution, "phase", phase);
+                }
+                DocumentXmlUtil.createElement(document, execution, "goals")
+                    .ifPresent(goals -> DocumentXmlUtil.createElement(document, goals, "goal", goal));
+                changed = true;
+            }
+            if (!options.isEmpty()) {
+                var configuration = getChild(document, plugin, CONFIGURATION);
+                for (Map.Entry<String, String> option : options.entrySet()) {
+                    if (findChild(configuration, option.getKey()).isEmpty()) {
+                        DocumentXmlUtil.createElement(document, configuration, option.getKey(), option.getValue());
+                        changed = true;
+                    }
+                }
+            }
+            if (changed) {
+                DocumentXmlUtil.saveDocument(pomFile, document);
+            }
+        } catch (XPathExpressionException ex) {
+            log.error(ex.getMessage(), ex);
+        }
+    }
+
+    private static Optional<Element> findChild(Element parent, String name) {
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE && name.equals(child.getNodeName())) {
+                return Optional.of((Element) child);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Element getChild(Document document, Element parent, String name) {
+        return findChild(parent, name)
+            .orElseGet(() -> DocumentXmlUtil.createElement(document, parent, name).orElseThrow());
+    }
+}
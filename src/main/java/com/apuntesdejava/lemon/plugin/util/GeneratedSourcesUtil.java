@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class for the sources generated in the {@code generate-sources} phase. It keeps a stamp file with the
+ * modification time, size and hash of each input file, so the generation is skipped when nothing changed.
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+public class GeneratedSourcesUtil {
+
+    private static final String KEY_PREFIX = "key=";
+    private static final char SEPARATOR = '|';
+    private static final int BUFFER_SIZE = 8192;
+
+    private GeneratedSourcesUtil() {
+
+    }
+
+    /**
+     * Evaluates whether the generated sources are up to date with the input files. The hash of an input file is only
+     * calculated when its modification time or size differ from the stamp.
+     *
+     * @param log       Maven log
+     * @param stampFile Stamp file of the previous generation
+     * @param key       Key with the generation options, for example the plugin version and the package name
+     * @param inputs    Input files of the generation
+     * @param outputs   Directories written by the generation
+     * @return {@code true} if the stamp and the output directories exist and all the input files are unchanged
+     */
+    public static boolean isUpToDate(Log log, Path stampFile, String key, Collection<Path> inputs,
+                                     Collection<Path> outputs) {
+        if (!Files.isRegularFile(stampFile)) {
+            log.debug("Stamp file not found:" + stampFile);
+            return false;
+        }
+        for (Path output : outputs) {
+            if (!Files.isDirectory(output)) {
+                log.debug("Output directory not found:" + output);
+                return false;
+            }
+        }
+        try {
+            List<String> lines = Files.readAllLines(stampFile, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !StringUtils.equals(lines.get(0), KEY_PREFIX + key)) {
+                log.debug("Generation options changed");
+                return false;
+            }
+            Map<String, String[]> stamps = new LinkedHashMap<>();
+            lines.stream()
+                .skip(1)
+                .map(line -> StringUtils.split(line, SEPARATOR))
+                .filter(values -> values.length == 4)
+                .forEach(values -> stamps.put(values[0], values));
+            if (stamps.size() != inputs.size()) {
+                return false;
+            }
+            for (Path input : inputs) {
+                String[] stamp = stamps.get(input.toAbsolutePath().toString());
+                if (stamp == null || !Files.isRegularFile(input)) {
+                    return false;
+                }
+                BasicFileAttributes attrs = Files.readAttributes(input, BasicFileAttributes.class);
+                if (attrs.lastModifiedTime().toMillis() == Long.parseLong(stamp[1]) && attrs.size() == Long.parseLong(
+                    stamp[2])) {
+                    continue;
+                }
+                if (!StringUtils.equals(hash(input), stamp[3])) {
+                    log.debug("Input file changed:" + input);
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException | NumberFormatException ex) {
+            log.warn(ex.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Saves the stamp file with the current state of the input files.
+     *
+     * @param log       Maven log
+     * @param stampFile Stamp file
+     * @param key       Key with the generation options
+     * @param inputs    Input files of the generation
+     */
+    public static void saveStamp(Log log, Path stampFile, String key, Collection<Path> inputs) {
+        try {
+            List<String> lines = new ArrayList<>();
+            lines.add(KEY_PREFIX + key);
+            for (Path input : inputs) {
+                BasicFileAttributes attrs = Files.readAttributes(input, BasicFileAttributes.class);
+                lines.add(String.join(String.valueOf(SEPARATOR), input.toAbsolutePath().toString(),
+                    String.valueOf(attrs.lastModifiedTime().toMillis()), String.valueOf(attrs.size()), hash(input)));
+            }
+            Files.createDirectories(stampFile.getParent());
+            Files.write(stampFile, lines, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            log.error(ex.getMessage(), ex);
+        }
+    }
+
+    private static String hash(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin.util;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static com.apuntesdejava.lemon.plugin.util.Constants.*;
+
+/**
+ * Utility class for deriving the indexes of an entity table from its finders, join columns and sort columns.
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+public class IndexUtil {
+
+    private static final Pattern CONDITION_PATTERN = Pattern.compile(
+        "\\b(\\w+)\\.(\\w+)(?:\\.\\w+)*\\s*(=|<>|!=|>=|<=|>|<|(?i:like|in|between)\\b)\\s*\\(?\\s*:\\w+");
+    private static final Pattern WHERE_PATTERN = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern AND_PATTERN = Pattern.compile("\\s+and\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_GROUP_PATTERN = Pattern.compile("\\b(?:order|group)\\s+by\\b",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern PARAMETER_EQUALITY_PATTERN = Pattern.compile(
+        "\\(?\\s*(\\w+)\\.(\\w+)\\s*=\\s*:\\w+\\s*\\)?");
+    private static final Set<String> EQUALITY_OPERATORS = Set.of("=", "in");
+    private static final String COLUMNS_SEPARATOR = ", ";
+    /**
+     * Oracle before 12.2 limits the identifiers to 30 characters, the lowest limit of the supported databases.
+     */
+    private static final int MAX_INDEX_NAME_LENGTH = 30;
+    private static final int HASH_LENGTH = 8;
+
+    private IndexUtil() {
+
+    }
+
+    /**
+     * Gets the indexes of the entity table. Unless {@code autoIndexes} is {@code false}, an index is derived from the
+     * parameters of each JPQL finder, from each join column and from the sort columns. The index of a unique finder is
+     * unique only when its where clause consists of equality comparisons with parameters, since a literal or another
+     * predicate may restrict the rows for which the finder is unique; unique indexes on other finders are declared in
+     * {@code indexes}.
+     * The indexes whose columns are listed in {@code excludeIndexes} are removed, and the {@code indexes} of the entity
+     * are added.
+     *
+     * @param entity Entity
+     * @return Indexes, each one with {@code name}, {@code columns} and {@code unique}
+     */
+    public static List<JsonObject> getIndexes(JsonObject entity) {
+        var fields = entity.containsKey(FIELDS) ? entity.getJsonObject(FIELDS) : JsonValue.EMPTY_JSON_OBJECT;
+        Map<String, Boolean> indexes = new LinkedHashMap<>();
+        if (entity.getBoolean(AUTO_INDEXES, true)) {
+            if (entity.containsKey(FINDERS)) {
+                entity.getJsonObject(FINDERS).values().stream()
+                    .map(JsonValue::asJsonObject)
+                    .filter(finder -> !finder.getBoolean(NATIVE_QUERY, false))
+                    .forEach(finder -> {
+                        List<String> equalityColumns = new ArrayList<>();
+                        List<String> rangeColumns = new ArrayList<>();
+                        addFinderColumns(entity, fields, finder.getString(QUERY, StringUtils.EMPTY), equalityColumns,
+                            rangeColumns);
+                        var unique = finder.getBoolean(UNIQUE, false) && rangeColumns.isEmpty()
+                            && !equalityColumns.isEmpty() && hasOnlyParameterEqualities(entity, fields,
+                            finder.getString(QUERY, StringUtils.EMPTY));
+                        equalityColumns.addAll(rangeColumns);
+                        if (!equalityColumns.isEmpty()) {
+                            indexes.merge(String.join(COLUMNS_SEPARATOR, equalityColumns), unique, Boolean::logicalOr);
+                        }
+                    });
+            }
+            fields.values().stream()
+                .map(JsonValue::asJsonObject)
+                .filter(field -> field.containsKey(COLUMN_NAME) && StringUtils.startsWithAny(
+                    field.getString(JOIN, StringUtils.EMPTY), "ManyToOne", "OneToOne"))
+                .forEach(field -> indexes.putIfAbsent(field.getString(COLUMN_NAME), false));
+            if (entity.containsKey(SORT_COLUMNS)) {
+                List<String> columns = entity.getJsonArray(SORT_COLUMNS)
+                    .getValuesAs(JsonString.class)
+                    .stream()
+                    .map(column -> getColumnName(fields, column.getString()))
+                    .collect(Collectors.toList());
+                fields.entrySet().stream()
+                    .filter(field -> field.getValue().asJsonObject().getBoolean(PK, false))
+                    .map(field -> getColumnName(fields, field.getKey()))
+                    .filter(column -> !columns.contains(column))
+                    .forEach(columns::add);
+                indexes.putIfAbsent(String.join(COLUMNS_SEPARATOR, columns), false);
+            }
+            removeCoveredIndexes(indexes);
+        }
+        if (entity.containsKey(EXCLUDE_INDEXES)) {
+            entity.getJsonArray(EXCLUDE_INDEXES)
+                .getValuesAs(JsonString.class)
+                .forEach(columns -> indexes.remove(normalize(columns.getString())));
+        }
+        var tableName = entity.getString(TABLE_NAME, entity.getString(NAME));
+        Map<String, JsonObject> result = new LinkedHashMap<>();
+        indexes.forEach((columns, unique) -> result.put(columns, Json.createObjectBuilder()
+            .add(NAME, getIndexName(tableName, columns, unique))
+            .add(COLUMNS, columns)
+            .add(UNIQUE, unique)
+            .build()));
+        if (entity.containsKey(INDEXES)) {
+            entity.getJsonArray(INDEXES).stream().map(JsonValue::asJsonObject).forEach(index -> {
+                var columns = index.get(COLUMNS).getValueType() == JsonValue.ValueType.ARRAY
+                    ? index.getJsonArray(COLUMNS)
+                    .getValuesAs(JsonString.class)
+                    .stream()
+                    .map(JsonString::getString)
+                    .collect(Collectors.joining(COLUMNS_SEPARATOR))
+                    : normalize(index.getString(COLUMNS));
+                var unique = index.getBoolean(UNIQUE, false);
+                result.put(columns, Json.createObjectBuilder()
+                    .add(NAME, index.getString(NAME, getIndexName(tableName, columns, unique)))
+                    .add(COLUMNS, columns)
+                    .add(UNIQUE, unique)
+                    .build());
+            });
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Columns compared with a parameter in the query, on the root entity, split into equality and range comparisons.
+     * The equality columns go first in the index, so it also serves the range comparisons.
+     */
+    private static void addFinderColumns(JsonObject entity, JsonObject fields, String query,
+                                         List<String> equalityColumns, List<String> rangeColumns) {
+        var alias = getAlias(entity, query);
+        if (alias == null) {
+            return;
+        }
+        Matcher matcher = CONDITION_PATTERN.matcher(query);
+        // en un update, las asignaciones del set no son condiciones
+        Matcher whereMatcher = WHERE_PATTERN.matcher(query);
+        matcher.region(whereMatcher.find() ? whereMatcher.start() : query.length(), query.length());
+        while (matcher.find()) {
+            if (!matcher.group(1).equals(alias) || !fields.containsKey(matcher.group(2))) {
+                continue;
+            }
+            var column = getColumnName(fields, matcher.group(2));
+            var target = EQUALITY_OPERATORS.contains(StringUtils.lowerCase(matcher.group(3)))
+                ? equalityColumns
+                : rangeColumns;
+            if (!equalityColumns.contains(column) && !rangeColumns.contains(column)) {
+                target.add(column);
+            }
+        }
+    }
+
+    /**
+     * The where clause consists only of {@code alias.field = :parameter} conditions joined by {@code and}.
+     */
+    private static boolean hasOnlyParameterEqualities(JsonObject entity, JsonObject fields, String query) {
+        var alias = getAlias(entity, query);
+        Matcher whereMatcher = WHERE_PATTERN.matcher(query);
+        if (alias == null || !whereMatcher.find()) {
+            return false;
+        }
+        var where = query.substring(whereMatcher.end());
+        Matcher orderGroupMatcher = ORDER_GROUP_PATTERN.matcher(where);
+        if (orderGroupMatcher.find()) {
+            where = where.substring(0, orderGroupMatcher.start());
+        }
+        return AND_PATTERN.splitAsStream(where.trim())
+            .map(PARAMETER_EQUALITY_PATTERN::matcher)
+            .allMatch(matcher -> matcher.matches() && matcher.group(1).equals(alias) && fields.containsKey(
+                matcher.group(2)));
+    }
+
+    private static String getAlias(JsonObject entity, String query) {
+        Matcher aliasMatcher = Pattern.compile("\\b(?:from|update)\\s+" + entity.getString(NAME)
+            + "\\s+(?:as\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE).matcher(query);
+        return aliasMatcher.find() ? aliasMatcher.group(1) : null;
+    }
+
+    /**
+     * A non-unique index is not needed when its columns are the first columns of another index.
+     */
+    private static void removeCoveredIndexes(Map<String, Boolean> indexes) {
+        List<String> keys = new ArrayList<>(indexes.keySet());
+        keys.stream()
+            .filter(columns -> !indexes.get(columns))
+            .filter(columns -> keys.stream()
+                .anyMatch(other -> !other.equals(columns) && other.startsWith(columns + COLUMNS_SEPARATOR)))
+            .forEach(indexes::remove);
+    }
+
+    private static String getColumnName(JsonObject fields, String fieldName) {
+        return fields.containsKey(fieldName)
+            ? fields.getJsonObject(fieldName).getString(COLUMN_NAME, fieldName)
+            : fieldName;
+    }
+
+    private static String normalize(String columns) {
+        return Arrays.stream(columns.split(","))
+            .map(String::trim)
+            .collect(Collectors.joining(COLUMNS_SEPARATOR));
+    }
+
+    /**
+     * A name longer than the limit of the database is truncated, with a hash of the full name as suffix so that it is
+     * still unique.
+     */
+    private static String getIndexName(String tableName, String columns, boolean unique) {
+        var name = (unique ? "ux_" : "idx_") + tableName + "_" + StringUtils.replace(columns, COLUMNS_SEPARATOR, "_");
+        if (name.length() <= MAX_INDEX_NAME_LENGTH) {
+            return name;
+        }
+        return name.substring(0, MAX_INDEX_NAME_LENGTH - HASH_LENGTH - 1) + "_" + String.format("%08x",
+            name.hashCode());
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin.util;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonString;
+import jakarta.json.JsonStructure;
+import jakarta.json.JsonValue;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.apuntesdejava.lemon.plugin.util.Constants.*;
+
+/**
+ * Utility class for handling the fragments of the {@code model.json} file. The {@code entities} element can reference
+ * other files with the {@code $include} key, for example {@code "entities": {"$include": "model/*.json"}}. Each
+ * fragment can be an array of entities or an object with the {@code entities} array.
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+public class ModelFragmentUtil {
+
+    private static final String GLOB_CHARS = "*?[{";
+
+    private ModelFragmentUtil() {
+
+    }
+
+    /**
+     * Evaluates whether the value of the entities contains a reference to fragment files.
+     *
+     * @param entities Value of the {@code entities} element
+     * @return {@code true} if it has at least one {@code $include}
+     */
+    public static boolean hasIncludes(JsonValue entities) {
+        if (entities == null) {
+            return false;
+        }
+        if (entities.getValueType() == JsonValue.ValueType.OBJECT) {
+            return entities.asJsonObject().containsKey(INCLUDE);
+        }
+        return entities.getValueType() == JsonValue.ValueType.ARRAY && entities.asJsonArray()
+            .stream()
+            .anyMatch(item -> item.getValueType() == JsonValue.ValueType.OBJECT && item.asJsonObject()
+            .containsKey(INCLUDE));
+    }
+
+    /**
+     * Lists the fragment files referenced by the entities, without reading them. The list is sorted so that the order
+     * of the entities does not depend on the file system.
+     *
+     * @param baseDir  Directory where the {@code model.json} file is located
+     * @param entities Value of the {@code entities} element
+     * @return Fragment files paths
+     * @throws IOException IO Exception
+     */
+    public static List<Path> listFragments(Path baseDir, JsonValue entities) throws IOException {
+        List<Path> fragments = new ArrayList<>();
+        for (String pattern : getIncludePatterns(entities)) {
+            fragments.addAll(findFiles(baseDir, pattern));
+        }
+        return fragments.stream().distinct().sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * Resolves the entities of the model, replacing the {@code $include} references with the entities of the fragment
+     * files. The fragments are parsed in parallel. Entity names must be unique through all the fragments.
+     *
+     * @param log       Maven log
+     * @param modelFile The {@code model.json} file
+     * @param entities  Value of the {@code entities} element
+     * @return Array with all the entities of the model
+     * @throws IOException IO Exception, if an {@code $include} does not match any file, or if an entity name is
+     *                     duplicated
+     */
+    public static JsonArray resolveEntities(Log log, Path modelFile, JsonValue entities) throws IOException {
+        Path baseDir = modelFile.toAbsolutePath().getParent();
+        List<Path> fragmentsPaths = listFragments(baseDir, entities);
+        log.debug("Model fragments:" + fragmentsPaths);
+        Map<Path, JsonArray> fragments;
+        try {
+            fragments = fragmentsPaths.parallelStream()
+                .collect(Collectors.toMap(path -> path, path -> readFragment(log, path), (a, b) -> a,
+                    LinkedHashMap::new));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        Map<String, String> entitiesSources = new LinkedHashMap<>();
+        JsonArrayBuilder entitiesBuilder = Json.createArrayBuilder();
+        if (entities.getValueType() == JsonValue.ValueType.ARRAY) {
+            for (JsonValue entity : entities.asJsonArray()) {
+                if (!entity.asJsonObject().containsKey(INCLUDE)) {
+                    addEntity(entitiesBuilder, entitiesSources, entity.asJsonObject(),
+                        modelFile.getFileName().toString());
+                }
+            }
+        }
+        for (Map.Entry<Path, JsonArray> fragment : fragments.entrySet()) {
+            String source = baseDir.relativize(fragment.getKey()).toString();
+            for (JsonValue entity : fragment.getValue()) {
+                addEntity(entitiesBuilder, entitiesSources, entity.asJsonObject(), source);
+            }
+        }
+        return entitiesBuilder.build();
+    }
+
+    private static void addEntity(JsonArrayBuilder entitiesBuilder,
+                                  Map<String, String> entitiesSources,
+                                  JsonObject entity,
+                                  String source) throws IOException {
+        String entityName = entity.getString(NAME);
+        String previousSource = entitiesSources.putIfAbsent(entityName, source);
+        if (previousSource != null) {
+            throw new IOException(
+                String.format("Entity %s is defined in %s and in %s", entityName, previousSource, source));
+        }
+        entitiesBuilder.add(entity);
+    }
+
+    private static List<String> getIncludePatterns(JsonValue entities) {
+        List<String> patterns = new ArrayList<>();
+        if (entities == null) {
+            return patterns;
+        }
+        if (entities.getValueType() == JsonValue.ValueType.OBJECT) {
+            addIncludePatterns(patterns, entities.asJsonObject().get(INCLUDE));
+        } else if (entities.getValueType() == JsonValue.ValueType.ARRAY) {
+            entities.asJsonArray()
+                .stream()
+                .filter(item -> item.getValueType() == JsonValue.ValueType.OBJECT)
+                .forEach(item -> addIncludePatterns(patterns, item.asJsonObject().get(INCLUDE)));
+        }
+        return patterns;
+    }
+
+    private static void addIncludePatterns(List<String> patterns, JsonValue include) {
+        if (include == null) {
+            return;
+        }
+        if (include.getValueType() == JsonValue.ValueType.STRING) {
+            patterns.add(((JsonString) include).getString());
+        } else if (include.getValueType() == JsonValue.ValueType.ARRAY) {
+            include.asJsonArray().getValuesAs(JsonString.class).forEach(item -> patterns.add(item.getString()));
+        }
+    }
+
+    private static List<Path> findFiles(Path baseDir, String pattern) throws IOException {
+        String normalizedPattern = StringUtils.replaceChars(pattern, '\\', SLASH);
+        if (StringUtils.containsNone(normalizedPattern, GLOB_CHARS)) {
+            Path file = baseDir.resolve(normalizedPattern).normalize();
+            if (!Files.isRegularFile(file)) {
+                throw new IOException("Model fragment not found:" + file);
+            }
+            return List.of(file);
+        }
+        // la parte sin comodines es el directorio a recorrer, y el resto se compara relativo a ese directorio
+        String[] segments = StringUtils.split(normalizedPattern, SLASH);
+        Path walkRoot = baseDir;
+        int globStart = 0;
+        while (globStart < segments.length && StringUtils.containsNone(segments[globStart], GLOB_CHARS)) {
+            walkRoot = walkRoot.resolve(segments[globStart++]);
+        }
+        Path root = walkRoot.normalize();
+        List<Path> found = List.of();
+        if (Files.isDirectory(root)) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + String.join(
+                String.valueOf(SLASH), List.of(segments).subList(globStart, segments.length)));
+            try (Stream<Path> files = Files.find(root, Integer.MAX_VALUE,
+                (path, attrs) -> attrs.isRegularFile() && matcher.matches(root.relativize(path)))) {
+                found = files.sorted().collect(Collectors.toList());
+            }
+        }
+        if (found.isEmpty()) {
+            throw new IOException("No model fragment matches " + pattern + " in " + baseDir);
+        }
+        return found;
+    }
+
+    private static JsonArray readFragment(Log log, Path path) {
+        log.debug("Reading model fragment:" + path);
+        try (InputStream in = Files.newInputStream(path); JsonReader reader = Json.createReader(in)) {
+            JsonStructure structure = reader.read();
+            JsonArray entities = structure.getValueType() == JsonValue.ValueType.ARRAY
+                ? structure.asJsonArray()
+                : structure.asJsonObject().getJsonArray(ENTITIES);
+            if (entities == null) {
+                throw new IOException("Model fragment without entities:" + path);
+            }
+            return entities;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -68,6 +68,24 @@ public class OpenApiModelUtil {
         return schemaType;
     }
 
+    /**
+     * Gets the Java type of a parameter schema. An array, such as the ids of a batch operation, is a {@code List}, and
+     * an integer with format {@code int64} is a {@code Long}.
+     *
+     * @param schema Parameter schema
+     * @return Java Type
+     */
+    public static String getParameterType(JsonObject schema) {
+        String type = schema.getString(TYPE);
+        if (ARRAY.equals(type) && schema.containsKey(ITEMS)) {
+            return "java.util.List<" + getParameterType(schema.getJsonObject(ITEMS)) + ">";
+        }
+        if (StringUtils.equals(schema.getString(FORMAT, null), "int64")) {
+            return "Long";
+        }
+        return getJavaType(type);
+    }
+
     /**
      * Creates a file class from the package name and the schema name given by the OpenAPI Model properties
      *
@@ -80,9 +98,27 @@ public class OpenApiModelUtil {
      */
     public String createClass(Log log, String packageName, MavenProject mavenProject, String schemaName,
                               JsonObject properties) {
+        return createClass(log, packageName,
+            mavenProject.getBasedir().toPath().resolve(SRC_PATH).resolve(MAIN_PATH).resolve(JAVA_PATH), schemaName,
+            properties, false);
+    }
+
+    /**
+     * Creates a file class from the package name and the schema name given by the OpenAPI Model properties, in the
+     * given source directory
+     *
+     * @param log          Maven Log
+     * @param packageName  Package Name
+     * @param javaMainSrc  Java source directory
+     * @param schemaName   Schema Name
+     * @param properties   Properties list
+     * @param reproducible {@code true} to write the class in reproducible mode
+     * @return Path File Class
+     */
+    public String createClass(Log log, String packageName, Path javaMainSrc, String schemaName,
+                              JsonObject properties, boolean reproducible) {
         try {
-            Path basedir = mavenProject.getBasedir().toPath();
-            log.debug("basedir:" + basedir);
+            log.debug("javaMainSrc:" + javaMainSrc);
             log.debug("schemaName:" + schemaName);
             if (schemaName.endsWith("Request")) {
                 packageName += ".request";
@@ -90,12 +126,7 @@ public class OpenApiModelUtil {
                 packageName += ".response";
             }
             String[] paths = packageName.split("\\.");
-            Path packageFile = Paths.get(mavenProject.getBasedir()
-                .toPath()
-                .resolve(SRC_PATH)
-                .resolve(MAIN_PATH)
-                .resolve(JAVA_PATH)
-                .toString(), paths);
+            Path packageFile = Paths.get(javaMainSrc.toString(), paths);
             Files.createDirectories(packageFile);
 
             Path classFile = packageFile.resolve(schemaName + ".java");
@@ -109,7 +140,7 @@ public class OpenApiModelUtil {
             });
             content.add("}");
 
-            Files.write(classFile, content);
+            SourceFileUtil.write(classFile, content, reproducible);
             return packageName + "." + schemaName;
 
         } catch (IOException ex) {
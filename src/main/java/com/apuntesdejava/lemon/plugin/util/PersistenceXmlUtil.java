@@ -16,6 +16,7 @@
 package com.apuntesdejava.lemon.plugin.util;
 
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathExpressionException;
@@ -24,6 +25,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.apuntesdejava.lemon.plugin.util.Constants.*;
 
@@ -36,6 +42,17 @@ public class PersistenceXmlUtil {
 
     private static final String PERSISTENCE_FILE_NAME = "persistence.xml";
 
+    /**
+     * Gets the path of the persistence.xml file of the project.
+     *
+     * @param basedir Project base directory
+     * @return Path of the persistence.xml file
+     */
+    public static Path getPersistenceXmlPath(File basedir) {
+        return Paths.get(basedir.toString(), SRC_PATH, MAIN_PATH, RESOURCES, META_INF, PERSISTENCE_FILE_NAME)
+            .normalize();
+    }
+
     /**
      * Open and get the persistence.xml file. If it doesn't exist, it creates it with the basic properties.
      *
@@ -44,8 +61,7 @@ public class PersistenceXmlUtil {
      * @throws IOException IO Exception
      */
     public static Document openPersistenceXml(File basedir) throws IOException {
-        Path xmlPath = Paths.get(basedir.toString(), SRC_PATH, MAIN_PATH, RESOURCES, META_INF, PERSISTENCE_FILE_NAME)
-            .normalize();
+        Path xmlPath = getPersistenceXmlPath(basedir);
         Files.createDirectories(xmlPath.getParent());
         return DocumentXmlUtil.openDocument(xmlPath).orElseGet(() -> {
             try {
@@ -66,6 +82,45 @@ public class PersistenceXmlUtil {
 
     }
 
+    /**
+     * Adds the properties to the persistence unit, keeping the values of the properties already defined.
+     *
+     * @param document        persistence.xml
+     * @param persistenceName persistence unit name
+     * @param properties      properties by name
+     * @return {@code true} if a property was added
+     * @throws XPathExpressionException XPath Exception
+     */
+    public static boolean addMissingProperties(Document document, String persistenceName,
+                                               Map<String, String> properties) throws XPathExpressionException {
+        var unitFilter = String.format("/persistence/persistence-unit[@name=\"%s\"]", persistenceName);
+        var unitElement = DocumentXmlUtil.listElementsByFilter(document, unitFilter).stream().findFirst();
+        if (unitElement.isEmpty()) {
+            return false;
+        }
+        Set<String> currentNames = DocumentXmlUtil.listElementsByFilter(document,
+                unitFilter + "/properties/property")
+            .stream()
+            .map(property -> property.getAttribute(NAME))
+            .collect(Collectors.toSet());
+        var propertiesElement = DocumentXmlUtil.listElementsByFilter(document, unitFilter + "/properties")
+            .stream()
+            .findFirst()
+            .or(() -> DocumentXmlUtil.createElement(document, unitElement.get(), PROPERTIES));
+        boolean added = false;
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            if (!currentNames.contains(property.getKey()) && propertiesElement.isPresent()) {
+                var propertyElement = DocumentXmlUtil.createElement(document, propertiesElement.get(), PROPERTY);
+                if (propertyElement.isPresent()) {
+                    propertyElement.get().setAttribute(NAME, property.getKey());
+                    propertyElement.get().setAttribute(VALUE, property.getValue());
+                    added = true;
+                }
+            }
+        }
+        return added;
+    }
+
     /**
      * Save the persistence.xml file
      *
@@ -79,4 +134,36 @@ public class PersistenceXmlUtil {
 
     }
 
+    /**
+     * Save the persistence.xml file. In reproducible mode, the properties of each persistence unit are sorted by name
+     * and the file is written with {@code \n} line separators.
+     *
+     * @param basedir      project base directory
+     * @param document     persistence.xml
+     * @param reproducible {@code true} to save in reproducible mode
+     */
+    public static void saveWebXml(File basedir, Document document, boolean reproducible) {
+        if (!reproducible) {
+            saveWebXml(basedir, document);
+            return;
+        }
+        try {
+            for (Element propertiesElement : DocumentXmlUtil.listElementsByFilter(document,
+                "/persistence/persistence-unit/properties")) {
+                List<Element> properties = DocumentXmlUtil.listElementsByFilter(document,
+                    "/persistence/persistence-unit/properties/property")
+                    .stream()
+                    .filter(property -> property.getParentNode() == propertiesElement)
+                    .sorted(Comparator.comparing(property -> property.getAttribute(NAME)))
+                    .collect(Collectors.toList());
+                properties.forEach(propertiesElement::appendChild);
+            }
+        } catch (XPathExpressionException ex) {
+            throw new RuntimeException(ex);
+        }
+        Path persistenceXmlPath = Paths.get(basedir.toString(), SRC_PATH, MAIN_PATH, RESOURCES, META_INF,
+            PERSISTENCE_FILE_NAME).normalize();
+        DocumentXmlUtil.saveReproducibleDocument(persistenceXmlPath, document);
+    }
+
 }
@@ -29,6 +29,7 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
 import java.io.*;
 import java.net.URISyntaxException;
+import java.nio.file.Paths;
 import java.util.*;
 
 import static com.apuntesdejava.lemon.plugin.util.Constants.*;
@@ -47,6 +48,24 @@ public class ProjectModelUtil {
 
     }
 
+    /**
+     * Gets the Java release of the project, from the {@code maven.compiler.release}, {@code maven.compiler.target} or
+     * {@code maven.compiler.source} properties.
+     *
+     * @param mavenProject Maven project
+     * @return Java release, or {@code 0} if it is not defined
+     */
+    public static int getJavaRelease(MavenProject mavenProject) {
+        var properties = mavenProject.getProperties();
+        for (String name : List.of("maven.compiler.release", "maven.compiler.target", "maven.compiler.source")) {
+            var value = StringUtils.removeStart(StringUtils.trimToEmpty(properties.getProperty(name)), "1.");
+            if (StringUtils.isNumeric(value)) {
+                return Integer.parseInt(value);
+            }
+        }
+        return 0;
+    }
+
     /**
      * Gets the properties of a given Maven profile
      *
@@ -77,6 +96,7 @@ public class ProjectModelUtil {
 
     /**
      * Gets the {@code  model.json } file that contains the configuration of the model to be created in the project.
+     * The entities referenced by {@code $include} are read from the fragment files.
      *
      * @param log              Maven log
      * @param modelProjectFile Model File
@@ -85,7 +105,13 @@ public class ProjectModelUtil {
     public static Optional<JsonObject> getProjectModel(Log log, String modelProjectFile) {
         log.debug("Reading model configuration:" + modelProjectFile);
         try (InputStream in = new FileInputStream(modelProjectFile)) {
-            return Optional.ofNullable(Json.createReader(in).readObject());
+            var projectModel = Json.createReader(in).readObject();
+            if (ModelFragmentUtil.hasIncludes(projectModel.get(ENTITIES))) {
+                var entities = ModelFragmentUtil.resolveEntities(log, Paths.get(modelProjectFile),
+                    projectModel.get(ENTITIES));
+                projectModel = Json.createObjectBuilder(projectModel).add(ENTITIES, entities).build();
+            }
+            return Optional.of(projectModel);
         } catch (IOException ex) {
             log.error(ex.getMessage(), ex);
         }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin.util;
+
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static com.apuntesdejava.lemon.plugin.util.Constants.*;
+
+/**
+ * Utility class for the finders that return a projection of the entity fields in a DTO, or a count, instead of the
+ * entity.
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+public class ProjectionUtil {
+
+    private static final Pattern SELECT_PATTERN = Pattern.compile("^\\s*select\\s+(distinct\\s+)?(\\w+)\\s+from\\s",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_BY_PATTERN = Pattern.compile("\\s+order\\s+by\\s.*$",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern GROUP_BY_PATTERN = Pattern.compile("\\s+group\\s+by\\s.*$",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern HAVING_PATTERN = Pattern.compile("\\shaving\\s", Pattern.CASE_INSENSITIVE);
+    private static final Pattern JOIN_FETCH_PATTERN = Pattern.compile("\\bjoin\\s+fetch\\s",
+        Pattern.CASE_INSENSITIVE);
+    private static final int RECORD_RELEASE = 16;
+
+    private ProjectionUtil() {
+
+    }
+
+    /**
+     * Checks if the finder declares a projection
+     *
+     * @param finder Finder
+     * @return {@code true} if the finder returns a DTO
+     */
+    public static boolean isProjection(JsonObject finder) {
+        return finder.containsKey(PROJECTION) && !finder.getJsonArray(PROJECTION).isEmpty();
+    }
+
+    /**
+     * Gets the DTO class name of a finder, by default the entity name followed by the finder name and {@code Dto}.
+     *
+     * @param entityName Entity name
+     * @param finderName Finder name
+     * @param finder     Finder
+     * @return DTO class name
+     */
+    public static String getDtoName(String entityName, String finderName, JsonObject finder) {
+        return finder.getString(DTO, entityName + finderName + "Dto");
+    }
+
+    /**
+     * Gets the fields of the projection
+     *
+     * @param finder Finder
+     * @return Field names, in the order of the DTO constructor
+     */
+    public static List<String> getFields(JsonObject finder) {
+        return finder.getJsonArray(PROJECTION)
+            .getValuesAs(JsonString.class)
+            .stream()
+            .map(JsonString::getString)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Rewrites the select clause of a JPQL query as a constructor expression of the DTO.
+     *
+     * @param query    JPQL query, as {@code select alias from ...}
+     * @param dtoClass Fully qualified DTO class name
+     * @param fields   Fields of the projection
+     * @return JPQL query with {@code select new}, or {@link Optional#empty()} if the select clause is not recognized
+     */
+    public static Optional<String> toConstructorQuery(String query, String dtoClass, List<String> fields) {
+        Matcher matcher = SELECT_PATTERN.matcher(query);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        var alias = matcher.group(2);
+        var arguments = fields.stream().map(field -> alias + '.' + field).collect(Collectors.joining(", "));
+        return Optional.of(
+            "select " + StringUtils.defaultString(matcher.group(1)) + "new " + dtoClass + "(" + arguments + ") from "
+                + query.substring(matcher.end()));
+    }
+
+    /**
+     * Gets the {@code order by} clause that makes the order of a JPQL finder query stable, so its pages do not overlap
+     * nor skip rows.
+     *
+     * @param query       Finder query
+     * @param nativeQuery {@code true} if it is a native query
+     * @param sortColumns Fields of the entity to sort by, ending with the id
+     * @return Order by clause, or {@link Optional#empty()} if the query is already ordered, if it is a native query, if
+     * the select clause is not recognized, or if there are no sort columns
+     */
+    public static Optional<String> getOrderByClause(String query, boolean nativeQuery, List<String> sortColumns) {
+        if (nativeQuery || sortColumns.isEmpty() || isOrdered(query)) {
+            return Optional.empty();
+        }
+        Matcher matcher = SELECT_PATTERN.matcher(query);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        var alias = matcher.group(2);
+        return Optional.of(sortColumns.stream()
+            .map(column -> alias + '.' + column)
+            .collect(Collectors.joining(", ", " order by ", StringUtils.EMPTY)));
+    }
+
+    /**
+     * Checks if the query has an {@code order by} clause
+     *
+     * @param query Finder query
+     * @return {@code true} if the query is ordered
+     */
+    public static boolean isOrdered(String query) {
+        return ORDER_BY_PATTERN.matcher(query).find();
+    }
+
+    /**
+     * Rewrites a finder query to count its rows. A JPQL query selects {@code count(alias)}, or
+     * {@code count(distinct alias)} instead of a {@code distinct} or {@code group by}, and a native query is wrapped as
+     * a subquery. The {@code order by} clause and the {@code fetch} of the joins are removed.
+     *
+     * @param query       Finder query
+     * @param nativeQuery {@code true} if it is a native query
+     * @return Count query, or {@link Optional#empty()} if the select clause of the JPQL query is not recognized, or if
+     * it has a {@code having} clause
+     */
+    public static Optional<String> toCountQuery(String query, boolean nativeQuery) {
+        var unordered = ORDER_BY_PATTERN.matcher(query).replaceFirst(StringUtils.EMPTY);
+        if (nativeQuery) {
+            return Optional.of("select count(*) from (" + unordered + ") t");
+        }
+        unordered = JOIN_FETCH_PATTERN.matcher(unordered).replaceAll("join ");
+        Matcher matcher = SELECT_PATTERN.matcher(unordered);
+        if (!matcher.find() || HAVING_PATTERN.matcher(unordered).find()) {
+            return Optional.empty();
+        }
+        // los grupos de la consulta son las filas distintas del alias
+        var from = unordered.substring(matcher.end());
+        Matcher groupByMatcher = GROUP_BY_PATTERN.matcher(from);
+        var distinct = matcher.group(1) != null || groupByMatcher.find();
+        return Optional.of("select count(" + (distinct ? "distinct " : StringUtils.EMPTY) + matcher.group(2)
+            + ") from " + GROUP_BY_PATTERN.matcher(from).replaceFirst(StringUtils.EMPTY));
+    }
+
+    /**
+     * Rewrites a finder query to select only the id of each row, to be executed with a limit of one row. The
+     * {@code order by} clause and the {@code fetch} of the joins are removed, and a query with {@code group by} keeps
+     * its select clause.
+     *
+     * @param query       Finder query
+     * @param nativeQuery {@code true} if it is a native query
+     * @param idName      Id field of the entity, or {@code null} to select the entity
+     * @return Exists query, or {@link Optional#empty()} if the select clause of the JPQL query is not recognized
+     */
+    public static Optional<String> toExistsQuery(String query, boolean nativeQuery, String idName) {
+        var unordered = ORDER_BY_PATTERN.matcher(query).replaceFirst(StringUtils.EMPTY);
+        if (nativeQuery) {
+            return Optional.of("select 1 from (" + unordered + ") t");
+        }
+        unordered = JOIN_FETCH_PATTERN.matcher(unordered).replaceAll("join ");
+        Matcher matcher = SELECT_PATTERN.matcher(unordered);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        var from = unordered.substring(matcher.end());
+        var selected = idName == null || GROUP_BY_PATTERN.matcher(from).find()
+            ? matcher.group(2)
+            : matcher.group(2) + '.' + idName;
+        return Optional.of("select " + selected + " from " + from);
+    }
+
+    /**
+     * Creates the DTO source file, as a record if the Java release supports it, or as a final class otherwise.
+     *
+     * @param target       Source file
+     * @param packageName  Package of the DTO
+     * @param dtoName      DTO class name
+     * @param fields       Type of each field, in the order of the constructor
+     * @param javaRelease  Java release of the project
+     * @param reproducible {@code true} to write in reproducible mode
+     * @throws IOException IO Exception
+     */
+    public static void createDto(Path target, String packageName, String dtoName, Map<String, String> fields,
+                                 int javaRelease, boolean reproducible) throws IOException {
+        var tab = StringUtils.repeat(StringUtils.SPACE, TAB);
+        List<String> lines = new ArrayList<>();
+        lines.add("package " + packageName + ";\n");
+        var components = fields.entrySet()
+            .stream()
+            .map(field -> field.getValue() + ' ' + field.getKey())
+            .collect(Collectors.joining(", "));
+        if (javaRelease >= RECORD_RELEASE) {
+            lines.add("public record " + dtoName + "(" + components + ") {");
+            lines.add("}");
+            SourceFileUtil.write(target, lines, reproducible);
+            return;
+        }
+        lines.add("public final class " + dtoName + " {\n");
+        fields.forEach((name, type) -> lines.add(tab + "private final " + type + ' ' + name + ';'));
+        lines.add(StringUtils.EMPTY);
+        lines.add(tab + "public " + dtoName + "(" + components + ") {");
+        fields.keySet().forEach(name -> lines.add(tab + tab + "this." + name + " = " + name + ';'));
+        lines.add(tab + "}\n");
+        fields.forEach((name, type) -> {
+            lines.add(tab + "public " + type + " get" + StringUtils.capitalize(name) + "() {");
+            lines.add(tab + tab + "return " + name + ';');
+            lines.add(tab + "}\n");
+        });
+        lines.add(tab + "@Override");
+        lines.add(tab + "public boolean equals(Object o) {");
+        lines.add(tab + tab + "if (this == o) {");
+        lines.add(tab + tab + tab + "return true;");
+        lines.add(tab + tab + "}");
+        lines.add(tab + tab + "if (!(o instanceof " + dtoName + ")) {");
+        lines.add(tab + tab + tab + "return false;");
+        lines.add(tab + tab + "}");
+        lines.add(tab + tab + dtoName + " other = (" + dtoName + ") o;");
+        lines.add(tab + tab + "return " + fields.keySet()
+            .stream()
+            .map(name -> "java.util.Objects.equals(" + name + ", other." + name + ")")
+            .collect(Collectors.joining("\n" + tab + tab + tab + "&& ")) + ';');
+        lines.add(tab + "}\n");
+        lines.add(tab + "@Override");
+        lines.add(tab + "public int hashCode() {");
+        lines.add(tab + tab + "return java.util.Objects.hash(" + String.join(", ", fields.keySet()) + ");");
+        lines.add(tab + "}\n");
+        lines.add(tab + "@Override");
+        lines.add(tab + "public String toString() {");
+        lines.add(tab + tab + "return \"" + dtoName + "[" + fields.keySet()
+            .stream()
+            .map(name -> name + "=\" + " + name + " + \"")
+            .collect(Collectors.joining(", ")) + "]\";");
+        lines.add(tab + "}");
+        lines.add("}");
+        SourceFileUtil.write(target, lines, reproducible);
+    }
+}
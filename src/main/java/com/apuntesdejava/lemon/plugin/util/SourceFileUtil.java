@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 Apuntes de Java.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.apuntesdejava.lemon.plugin.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Utility class for writing the generated source files
+ *
+ * @author Diego Silva mailto:diego.silva@apuntesdejava.com
+ */
+public class SourceFileUtil {
+
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String IMPORT = "import ";
+
+    private SourceFileUtil() {
+
+    }
+
+    /**
+     * Writes the lines of a source file in UTF-8. In reproducible mode the file is written with {@code \n} line
+     * separators and each block of imports is sorted without duplicates, so identical inputs give identical bytes on
+     * any platform.
+     *
+     * @param target       Source file
+     * @param lines        Lines of the file. A line can contain line separators.
+     * @param reproducible {@code true} to write in reproducible mode
+     * @throws IOException IO Exception
+     */
+    public static void write(Path target, List<String> lines, boolean reproducible) throws IOException {
+        if (!reproducible) {
+            Files.write(target, lines, StandardCharsets.UTF_8);
+            return;
+        }
+        Files.writeString(target, String.join(LINE_SEPARATOR, canonical(lines)) + LINE_SEPARATOR,
+            StandardCharsets.UTF_8);
+    }
+
+    private static List<String> canonical(List<String> lines) {
+        List<String> physicalLines = new ArrayList<>();
+        lines.forEach(line -> physicalLines.addAll(
+            Arrays.asList(StringUtils.replace(line, "\r\n", LINE_SEPARATOR).split(LINE_SEPARATOR, -1))));
+        List<String> result = new ArrayList<>();
+        TreeSet<String> imports = new TreeSet<>();
+        for (String line : physicalLines) {
+            if (line.startsWith(IMPORT)) {
+                imports.add(line.trim());
+                continue;
+            }
+            result.addAll(imports);
+            imports.clear();
+            result.add(StringUtils.stripEnd(line, null));
+        }
+        result.addAll(imports);
+        while (!result.isEmpty() && result.get(result.size() - 1).isEmpty()) {
+            result.remove(result.size() - 1);
+        }
+        return result;
+    }
+}